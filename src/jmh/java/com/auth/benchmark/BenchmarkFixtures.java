@@ -0,0 +1,75 @@
+package com.auth.benchmark;
+
+import com.auth.entity.JwtSigningKey;
+import com.auth.entity.Provider;
+import com.auth.entity.Role;
+import com.auth.entity.User;
+import com.auth.repository.JwtSigningKeyRepository;
+import com.auth.repository.RoleRepository;
+import com.auth.security.JwtKeyManager;
+import com.auth.security.RoleRegistry;
+import com.auth.service.JwtService;
+import io.micrometer.observation.ObservationRegistry;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+final class BenchmarkFixtures {
+
+    static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret";
+    static final long ACCESS_TTL_SECONDS = 3600;
+    static final long REFRESH_TTL_SECONDS = 86400;
+
+    // interning does not need the role table, so the repository is never called
+    static final RoleRegistry ROLE_REGISTRY = new RoleRegistry(Mockito.mock(RoleRepository.class));
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtService jwtService() {
+        return jwtService("HS512");
+    }
+
+    static JwtService jwtService(String algorithm) {
+        JwtKeyManager keyManager = new JwtKeyManager(
+                signingKeyRepository(), SECRET, algorithm, Duration.ofDays(1), REFRESH_TTL_SECONDS);
+        return new JwtService(keyManager, ROLE_REGISTRY, ObservationRegistry.NOOP, ACCESS_TTL_SECONDS, REFRESH_TTL_SECONDS, "benchmark");
+    }
+
+    // keys are only read and written while the manager rotates, which a benchmark run never does after setup
+    private static JwtSigningKeyRepository signingKeyRepository() {
+        List<JwtSigningKey> keys = new CopyOnWriteArrayList<>();
+        JwtSigningKeyRepository repository = Mockito.mock(JwtSigningKeyRepository.class);
+        Mockito.when(repository.findAllByAlgorithmAndEpochBetween(
+                        ArgumentMatchers.anyString(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong()))
+                .thenAnswer(invocation -> List.copyOf(keys));
+        Mockito.when(repository.save(ArgumentMatchers.any(JwtSigningKey.class))).thenAnswer(invocation -> {
+            keys.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        return repository;
+    }
+
+    static User user(int roleCount) {
+        Set<Role> roles = new HashSet<>();
+        for (int i = 0; i < roleCount; i++) {
+            roles.add(new Role(UUID.randomUUID(), "ROLE_BENCHMARK_" + i));
+        }
+
+        User user = new User("Benchmark User", "benchmark@example.com", "https://example.com/avatar.png",
+                true, Provider.LOCAL, null);
+        user.setId(UUID.randomUUID());
+        user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z2L1xYt0u5aXBq6y2WZq8v3K");
+        user.setCreated_at(Instant.now());
+        user.setUpdated_at(Instant.now());
+        user.setRoles(roles);
+        return user;
+    }
+}
@@ -0,0 +1,44 @@
+package com.auth.benchmark;
+
+import com.auth.service.CookieService;
+import jakarta.servlet.http.Cookie;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CookieServiceBenchmark {
+
+    private static final String COOKIE_NAME = "refresh_token";
+
+    @Param({"1", "10"})
+    private int cookieCount;
+
+    private CookieService cookieService;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        cookieService = new CookieService(COOKIE_NAME, true, true, "localhost", "Strict");
+
+        String refreshToken = BenchmarkFixtures.jwtService()
+                .generateRefreshToken(BenchmarkFixtures.user(1), "benchmark-jti");
+        Cookie[] cookies = new Cookie[cookieCount];
+        for (int i = 0; i < cookieCount - 1; i++) {
+            cookies[i] = new Cookie("other_" + i, "value_" + i);
+        }
+        cookies[cookieCount - 1] = new Cookie(COOKIE_NAME, refreshToken);
+
+        request = new MockHttpServletRequest();
+        request.setCookies(cookies);
+    }
+
+    @Benchmark
+    public Optional<String> getRefreshTokenJwt() {
+        return cookieService.getRefreshTokenJwt(request);
+    }
+}
@@ -0,0 +1,76 @@
+package com.auth.benchmark;
+
+import com.auth.entity.User;
+import com.auth.exceptions.ErrorResponseService;
+import com.auth.repository.UserRevocationRepository;
+import com.auth.security.CustomUserDetails;
+import com.auth.security.JwtAuthenticationFilter;
+import com.auth.security.VerifiedTokenCache;
+import com.auth.service.JwtService;
+import com.auth.service.UserRevocationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.FilterChain;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full pass of {@link JwtAuthenticationFilter} for an authenticated
+ * request. The user lookup is served from memory, so the numbers show the
+ * filter's own cost and not the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"false", "true"})
+    private boolean statelessPrincipal;
+
+    @Param({"false", "true"})
+    private boolean tokenCache;
+
+    @Param({"1", "10"})
+    private int roleCount;
+
+    private JwtAuthenticationFilter filter;
+    private String authorizationHeader;
+    private final FilterChain filterChain = (request, response) -> {
+    };
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = BenchmarkFixtures.jwtService();
+        User user = BenchmarkFixtures.user(roleCount);
+
+        filter = new JwtAuthenticationFilter(
+                new VerifiedTokenCache(jwtService, new SimpleMeterRegistry(), tokenCache, 10_000),
+                email -> new CustomUserDetails(user, BenchmarkFixtures.ROLE_REGISTRY.authorities(user.getRoles())),
+                new ErrorResponseService(new SimpleMeterRegistry()),
+                new UserRevocationService(Mockito.mock(UserRevocationRepository.class), BenchmarkFixtures.ACCESS_TTL_SECONDS),
+                BenchmarkFixtures.ROLE_REGISTRY,
+                ObservationRegistry.NOOP,
+                statelessPrincipal
+        );
+        authorizationHeader = "Bearer " + jwtService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse authenticatedRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user");
+        request.addHeader("Authorization", authorizationHeader);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        try {
+            filter.doFilter(request, response, filterChain);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+}
@@ -0,0 +1,63 @@
+package com.auth.benchmark;
+
+import com.auth.entity.User;
+import com.auth.security.VerifiedToken;
+import com.auth.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JwtServiceBenchmark {
+
+    @Param({"HS512", "ES256", "EdDSA"})
+    private String algorithm;
+
+    @Param({"1", "10", "50"})
+    private int roleCount;
+
+    private JwtService jwtService;
+    private User user;
+    private String jti;
+    private String accessToken;
+    private String refreshToken;
+
+    @Setup
+    public void setUp() {
+        jwtService = BenchmarkFixtures.jwtService(algorithm);
+        user = BenchmarkFixtures.user(roleCount);
+        jti = UUID.randomUUID().toString();
+        accessToken = jwtService.generateAccessToken(user);
+        refreshToken = jwtService.generateRefreshToken(user, jti);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public String generateRefreshToken() {
+        return jwtService.generateRefreshToken(user, jti);
+    }
+
+    @Benchmark
+    public Jws<Claims> parseAccessToken() {
+        return jwtService.parse(accessToken);
+    }
+
+    @Benchmark
+    public VerifiedToken verifyAccessToken() {
+        return jwtService.verify(accessToken);
+    }
+
+    @Benchmark
+    public VerifiedToken verifyRefreshToken() {
+        return jwtService.verify(refreshToken);
+    }
+}
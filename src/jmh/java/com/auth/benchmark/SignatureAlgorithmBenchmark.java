@@ -0,0 +1,89 @@
+package com.auth.benchmark;
+
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Compares signing and verification cost of the algorithms we can issue
+ * tokens with, using the same claim set as an access token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SignatureAlgorithmBenchmark {
+
+    @Param({"HS256", "HS512", "ES256", "EdDSA"})
+    private String algorithm;
+
+    @Param({"1", "10", "50"})
+    private int roleCount;
+
+    private UnaryOperator<JwtBuilder> signer;
+    private JwtParser parser;
+    private List<String> roles;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        switch (algorithm) {
+            case "HS256" -> {
+                SecretKey key = Jwts.SIG.HS256.key().build();
+                signer = builder -> builder.signWith(key, Jwts.SIG.HS256);
+                parser = Jwts.parser().verifyWith(key).build();
+            }
+            case "HS512" -> {
+                SecretKey key = Jwts.SIG.HS512.key().build();
+                signer = builder -> builder.signWith(key, Jwts.SIG.HS512);
+                parser = Jwts.parser().verifyWith(key).build();
+            }
+            case "ES256" -> {
+                KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+                signer = builder -> builder.signWith(keyPair.getPrivate(), Jwts.SIG.ES256);
+                parser = Jwts.parser().verifyWith(keyPair.getPublic()).build();
+            }
+            case "EdDSA" -> {
+                KeyPair keyPair = Jwts.SIG.EdDSA.keyPair().build();
+                signer = builder -> builder.signWith(keyPair.getPrivate(), Jwts.SIG.EdDSA);
+                parser = Jwts.parser().verifyWith(keyPair.getPublic()).build();
+            }
+            default -> throw new IllegalArgumentException("Unknown algorithm " + algorithm);
+        }
+
+        roles = new ArrayList<>();
+        for (int i = 0; i < roleCount; i++) {
+            roles.add("ROLE_BENCHMARK_" + i);
+        }
+        token = sign();
+    }
+
+    @Benchmark
+    public String sign() {
+        long now = System.currentTimeMillis();
+        return signer.apply(Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .subject("benchmark@example.com")
+                .issuer("benchmark")
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + 3_600_000))
+                .claim("userId", "8f7b6e2a-1c1d-4b8e-9a57-2f3e4d5c6b7a")
+                .claim("roles", roles)
+                .claim("typ", "access"))
+                .compact();
+    }
+
+    @Benchmark
+    public Object verify() {
+        return parser.parseSignedClaims(token);
+    }
+}
@@ -0,0 +1,32 @@
+package com.auth.benchmark;
+
+import com.auth.dto.UserDto;
+import com.auth.entity.User;
+import com.auth.mapper.UserMapper;
+import com.auth.mapper.UserMapperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class UserMapperBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int roleCount;
+
+    private UserMapper userMapper;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        userMapper = new UserMapperImpl();
+        user = BenchmarkFixtures.user(roleCount);
+    }
+
+    @Benchmark
+    public UserDto mapToUserDto() {
+        return userMapper.mapToUserDto(user);
+    }
+}
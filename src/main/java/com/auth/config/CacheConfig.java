@@ -0,0 +1,36 @@
+package com.auth.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Locale;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS_BY_EMAIL = "usersByEmail";
+
+    /**
+     * Key of an email in {@link #USERS_BY_EMAIL}. Email lookups are case-insensitive
+     * in the database, so every spelling of an address must share one entry.
+     */
+    public static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    @Bean
+    public CacheManager cacheManager(@Value("${security.user-cache.spec}") String userCacheSpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(USERS_BY_EMAIL);
+        cacheManager.setCacheSpecification(userCacheSpec);
+        // unknown emails are cached as null entries
+        cacheManager.setAllowNullValues(true);
+        // evictions are applied after the surrounding transaction commits, and only on this node (see UserCacheInvalidator)
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
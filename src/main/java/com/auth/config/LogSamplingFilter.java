@@ -0,0 +1,51 @@
+package com.auth.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logback turbo filter that lets at most {@code maxEventsPerSecond} events
+ * below WARN through for loggers under {@code category}; the rest are
+ * dropped before an event is even created. Configured per category in
+ * {@code logback-spring.xml}.
+ */
+public class LogSamplingFilter extends TurboFilter {
+
+    private String category = "";
+    private int maxEventsPerSecond = 100;
+
+    private final AtomicLong window = new AtomicLong();
+    private final AtomicInteger events = new AtomicInteger();
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public void setMaxEventsPerSecond(int maxEventsPerSecond) {
+        this.maxEventsPerSecond = maxEventsPerSecond;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // level checks such as isDebugEnabled() arrive without a format and must not use up the budget
+        if (format == null
+                || level.isGreaterOrEqual(Level.WARN)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())
+                || !logger.getName().startsWith(category)) {
+            return FilterReply.NEUTRAL;
+        }
+
+        long second = System.currentTimeMillis() / 1000;
+        long current = window.get();
+        if (current != second && window.compareAndSet(current, second)) {
+            events.set(0);
+        }
+        return events.incrementAndGet() <= maxEventsPerSecond ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
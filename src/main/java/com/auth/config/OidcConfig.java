@@ -0,0 +1,61 @@
+package com.auth.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.client.oidc.authentication.OidcIdTokenDecoderFactory;
+import org.springframework.security.oauth2.client.oidc.authentication.OidcIdTokenValidator;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtDecoderFactory;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decodes and validates OIDC ID tokens during OAuth2 login. Each
+ * registration gets one decoder, built on first use, and the key sets
+ * fetched from the providers' JWKS endpoints are kept in a shared cache, so
+ * a login does not fetch keys unless they expired or a token is signed with
+ * a key we have not seen.
+ */
+@Configuration
+public class OidcConfig {
+
+    private static final int MAX_CACHED_KEY_SETS = 100;
+
+    @Bean
+    public JwtDecoderFactory<ClientRegistration> idTokenDecoderFactory(
+            @Value("${security.oauth2.oidc.jwks-cache-ttl:PT1H}") Duration jwksCacheTtl) {
+
+        Cache jwksCache = new CaffeineCache("oidcJwks", Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_KEY_SETS)
+                .expireAfterWrite(jwksCacheTtl)
+                .build());
+        // registrations without a JWKS endpoint, such as MAC-signed tokens, keep the default decoder
+        OidcIdTokenDecoderFactory defaultFactory = new OidcIdTokenDecoderFactory();
+        Map<String, JwtDecoder> decoders = new ConcurrentHashMap<>();
+
+        return registration -> decoders.computeIfAbsent(registration.getRegistrationId(), id -> {
+            String jwkSetUri = registration.getProviderDetails().getJwkSetUri();
+            if (!StringUtils.hasText(jwkSetUri)) {
+                return defaultFactory.createDecoder(registration);
+            }
+            NimbusJwtDecoder decoder = NimbusJwtDecoder.withJwkSetUri(jwkSetUri)
+                    .cache(jwksCache)
+                    .build();
+            decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                    new JwtTimestampValidator(), new OidcIdTokenValidator(registration)));
+            decoder.setClaimSetConverter(OidcIdTokenDecoderFactory.createDefaultClaimTypeConverter());
+            return decoder;
+        });
+    }
+}
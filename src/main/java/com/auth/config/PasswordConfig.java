@@ -1,15 +1,121 @@
 package com.auth.config;
 
+import com.auth.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Password hashes are stored with an {id} prefix so BCrypt, Argon2 and PBKDF2
+ * hashes can coexist. The cost of BCrypt and Argon2 is calibrated at startup
+ * so one hash takes about {@code security.password.target-hash-millis} on
+ * this node; both store their cost in the hash, so hashes made by other
+ * nodes or with another cost still verify. Hashes made with another
+ * algorithm or a lower cost are upgraded on the next successful login
+ * (see {@link com.auth.security.CustomUserDetailService#updatePassword}).
+ * <p>
+ * PBKDF2 hashes do not record their iteration count, so PBKDF2 uses the
+ * fixed {@code security.password.pbkdf2-iterations} on every node. Changing
+ * it makes existing {@code {pbkdf2}} hashes fail to verify.
+ */
+@Slf4j
 @Configuration
 public class PasswordConfig {
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    // {id} prefixes of the hashes the delegating encoder can verify
+    public static final Set<String> ENCODING_IDS = Set.of("bcrypt", "pbkdf2", "argon2");
+
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    private static final int MIN_BCRYPT_STRENGTH = 10;
+    private static final int MAX_BCRYPT_STRENGTH = 16;
+    private static final int MIN_PBKDF2_ITERATIONS = 310_000;
+    private static final int MIN_ARGON2_ITERATIONS = 2;
+
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder(
+            MeterRegistry meterRegistry,
+            ObservationRegistry observationRegistry,
+            @Value("${security.password.algorithm:bcrypt}") String algorithm,
+            @Value("${security.password.target-hash-millis:250}") long targetHashMillis,
+            @Value("${security.password.pbkdf2-iterations:310000}") int pbkdf2Iterations,
+            @Value("${security.password.hashing.pool-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int poolSize,
+            @Value("${security.password.hashing.queue-capacity:64}") int queueCapacity) {
+
+        if (pbkdf2Iterations < MIN_PBKDF2_ITERATIONS) {
+            throw new IllegalArgumentException("security.password.pbkdf2-iterations must be at least " + MIN_PBKDF2_ITERATIONS);
+        }
+        PasswordEncoder pbkdf2Encoder = pbkdf2(pbkdf2Iterations);
+
+        PasswordEncoder encoderForHashing = switch (algorithm) {
+            case "bcrypt" -> calibrateBcrypt(targetHashMillis);
+            case "pbkdf2" -> pbkdf2Encoder;
+            case "argon2" -> calibrateIterations(targetHashMillis, MIN_ARGON2_ITERATIONS, PasswordConfig::argon2);
+            default -> throw new IllegalArgumentException("Unsupported password algorithm " + algorithm);
+        };
+
+        Map<String, PasswordEncoder> encoders = Map.of(
+                "bcrypt", algorithm.equals("bcrypt") ? encoderForHashing : new BCryptPasswordEncoder(),
+                "pbkdf2", pbkdf2Encoder,
+                "argon2", algorithm.equals("argon2") ? encoderForHashing : Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8()
+        );
+        DelegatingPasswordEncoder delegatingPasswordEncoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        // hashes stored before the {id} prefix was introduced are plain BCrypt
+        delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(encoders.get("bcrypt"));
+
+        return new BoundedPasswordEncoder(delegatingPasswordEncoder, poolSize, queueCapacity, meterRegistry, observationRegistry);
+    }
+
+    // each extra BCrypt round doubles the cost, so stop at the first strength reaching the target
+    private static PasswordEncoder calibrateBcrypt(long targetHashMillis) {
+        int strength = MIN_BCRYPT_STRENGTH;
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        while (strength < MAX_BCRYPT_STRENGTH && measureMillis(encoder) < targetHashMillis) {
+            encoder = new BCryptPasswordEncoder(++strength);
+        }
+        log.info("Calibrated bcrypt strength {} for a target of {} ms", strength, targetHashMillis);
+        return encoder;
+    }
+
+    // Argon2 cost grows linearly with the iteration count
+    private static PasswordEncoder calibrateIterations(
+            long targetHashMillis, int minIterations, IntFunction<PasswordEncoder> encoderFactory) {
+
+        double millis = Math.max(measureMillis(encoderFactory.apply(minIterations)), 1);
+        int iterations = (int) Math.max(minIterations, minIterations * targetHashMillis / millis);
+        log.info("Calibrated {} iterations for a target of {} ms", iterations, targetHashMillis);
+        return encoderFactory.apply(iterations);
+    }
+
+    private static PasswordEncoder pbkdf2(int iterations) {
+        return new Pbkdf2PasswordEncoder("", 16, iterations,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+    }
+
+    private static PasswordEncoder argon2(int iterations) {
+        return new Argon2PasswordEncoder(16, 32, 1, 1 << 14, iterations);
+    }
+
+    // best of three runs, the first one also warms up the code path
+    private static long measureMillis(PasswordEncoder encoder) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            best = Math.min(best, (System.nanoTime() - start) / 1_000_000);
+        }
+        return best;
     }
 }
@@ -0,0 +1,38 @@
+package com.auth.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Limits for the unauthenticated auth endpoints, e.g.
+ * <pre>
+ * security.rate-limit.endpoints:
+ *   - path: /auth/login
+ *     per-ip: { capacity: 20, period: PT1M }
+ *     per-email: { capacity: 5, period: PT1M }
+ * </pre>
+ * A limit allows {@code capacity} requests in a burst and refills at
+ * {@code capacity} per {@code period}.
+ */
+@ConfigurationProperties(prefix = "security.rate-limit")
+public record RateLimitProperties(
+        boolean enabled,
+        long maxKeys,
+        Duration idleTimeout,
+        List<Endpoint> endpoints
+) {
+
+    public RateLimitProperties {
+        maxKeys = maxKeys > 0 ? maxKeys : 100_000;
+        idleTimeout = idleTimeout != null ? idleTimeout : Duration.ofMinutes(10);
+        endpoints = endpoints != null ? List.copyOf(endpoints) : List.of();
+    }
+
+    public record Endpoint(String path, Limit perIp, Limit perEmail) {
+    }
+
+    public record Limit(int capacity, Duration period) {
+    }
+}
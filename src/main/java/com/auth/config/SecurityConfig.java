@@ -1,11 +1,14 @@
 package com.auth.config;
 
+import com.auth.exceptions.AuthRejection;
 import com.auth.exceptions.ErrorResponseService;
+import com.auth.security.CookieAuthorizationRequestRepository;
 import com.auth.security.JwtAuthenticationFilter;
+import com.auth.security.RateLimitFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -18,11 +21,14 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 
 @Configuration
 @RequiredArgsConstructor
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final ErrorResponseService errorResponseService;
     private final AuthenticationSuccessHandler authenticationSuccessHandler;
+    private final CookieAuthorizationRequestRepository authorizationRequestRepository;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -33,13 +39,17 @@ public class SecurityConfig {
                         authorizeRequests ->
                                 authorizeRequests
                                         .requestMatchers("/auth/register", "/auth/login", "/auth/refresh").permitAll()
+                                        .requestMatchers("/.well-known/jwks.json").permitAll()
                                         .anyRequest().authenticated()
                 )
                 .sessionManagement(sessionManagement ->
                         sessionManagement.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .cors(Customizer.withDefaults())
                 .oauth2Login(oauth2 ->
-                        oauth2.successHandler(authenticationSuccessHandler)
+                        oauth2
+                                .authorizationEndpoint(authorization ->
+                                        authorization.authorizationRequestRepository(authorizationRequestRepository))
+                                .successHandler(authenticationSuccessHandler)
 //                                .failureHandler(null)
                 )
                 .logout(AbstractHttpConfigurer::disable)
@@ -48,15 +58,15 @@ public class SecurityConfig {
                                 exceptionHandling
                                         .authenticationEntryPoint(
                                                 (request, response, authException) -> {
-                                                    errorResponseService.handleAuthenticationFilterException(request, response, authException.getMessage(), HttpStatus.UNAUTHORIZED);
+                                                    errorResponseService.reject(request, response, AuthRejection.UNAUTHENTICATED);
                                                 })
                                         .accessDeniedHandler(
                                                 (request, response, accessDeniedException) -> {
-                                                    errorResponseService.handleAuthenticationFilterException(request, response, accessDeniedException.getMessage(), HttpStatus.FORBIDDEN);
-
+                                                    errorResponseService.reject(request, response, AuthRejection.ACCESS_DENIED);
                                                 })
                 )
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class);
         return http
                 .build();
     }
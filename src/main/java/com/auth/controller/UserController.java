@@ -1,13 +1,27 @@
 package com.auth.controller;
 
 import com.auth.dto.UserDto;
+import com.auth.dto.UserImportResult;
+import com.auth.dto.UserPage;
+import com.auth.service.UserCsv;
+import com.auth.service.UserImportService;
 import com.auth.service.UserService;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.SequenceWriter;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 
 @RestController
@@ -15,7 +29,12 @@ import java.util.UUID;
 @AllArgsConstructor
 public class UserController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<UserDto> createUser(
@@ -26,9 +45,57 @@ public class UserController {
     }
 
     @GetMapping
-    public ResponseEntity<Iterable<UserDto>> getAllUsers() {
-        Iterable<UserDto> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<UserPage> getUsers(
+            @RequestParam(required = false) UUID cursor,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return ResponseEntity.ok(userService.getUsers(cursor, size));
+    }
+
+    // one JSON document per line, written while rows are read from the database
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = objectMapper.writer()
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                userService.exportUsers(writer::write);
+            }
+        };
+        return ResponseEntity.ok(body);
+    }
+
+    @GetMapping(value = "/export", produces = CSV)
+    public ResponseEntity<StreamingResponseBody> exportUsersAsCsv() {
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            writer.write(UserCsv.header());
+            writer.write('\n');
+            try {
+                userService.exportUsers(user -> {
+                    try {
+                        writer.write(UserCsv.format(user));
+                        writer.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok(body);
+    }
+
+    @PostMapping(value = "/import", consumes = NDJSON)
+    public ResponseEntity<UserImportResult> importUsers(InputStream input) throws IOException {
+        return ResponseEntity.ok(userImportService.importUsers(input, UserImportService.Format.NDJSON));
+    }
+
+    @PostMapping(value = "/import", consumes = CSV)
+    public ResponseEntity<UserImportResult> importUsersFromCsv(InputStream input) throws IOException {
+        return ResponseEntity.ok(userImportService.importUsers(input, UserImportService.Format.CSV));
     }
 
     @GetMapping("/email/{email}")
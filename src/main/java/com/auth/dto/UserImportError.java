@@ -0,0 +1,13 @@
+package com.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UserImportError {
+    private long line;
+    private String email;
+    private String message;
+
+}
@@ -0,0 +1,20 @@
+package com.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. {@code errors} lists the rejected records by
+ * line number and is truncated when {@code truncated} is set.
+ */
+@Getter
+@AllArgsConstructor
+public class UserImportResult {
+    private long imported;
+    private long failed;
+    private List<UserImportError> errors;
+    private boolean truncated;
+
+}
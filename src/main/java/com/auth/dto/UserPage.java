@@ -0,0 +1,19 @@
+package com.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One page of users ordered by id. {@code nextCursor} is passed back as
+ * {@code cursor} to fetch the following page and is null on the last page.
+ */
+@Getter
+@AllArgsConstructor
+public class UserPage {
+    private List<UserDto> users;
+    private UUID nextCursor;
+
+}
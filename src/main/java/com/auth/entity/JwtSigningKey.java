@@ -0,0 +1,54 @@
+package com.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A randomly generated token signing key pair, shared by all instances.
+ * The private key is stored encrypted with a key derived from
+ * {@code security.jwt.secret}.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(indexes = @Index(name = "jwt_signing_key_kid_idx", columnList = "kid", unique = true))
+public class JwtSigningKey {
+
+    @Id
+    @GeneratedValue
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
+    private UUID id;
+
+    @Column(nullable = false, updatable = false)
+    private String kid;
+
+    @Column(nullable = false, updatable = false)
+    private String algorithm;
+
+    // number of the rotation interval the key signs in
+    @Column(nullable = false, updatable = false)
+    private long epoch;
+
+    // X.509 encoding
+    @Column(nullable = false, updatable = false, length = 1024)
+    private byte[] publicKey;
+
+    // AES-GCM encrypted PKCS#8 encoding, prefixed with the IV
+    @Column(nullable = false, updatable = false, length = 1024)
+    private byte[] encryptedPrivateKey;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = Instant.now();
+    }
+}
@@ -4,5 +4,6 @@ public enum Provider {
     LOCAL,
     GOOGLE,
     FACEBOOK,
-    GITHUB
+    GITHUB,
+    OIDC
 }
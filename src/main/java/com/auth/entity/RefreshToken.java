@@ -2,6 +2,7 @@ package com.auth.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -14,12 +15,15 @@ import java.util.UUID;
 @Entity
 @Table(indexes = {
         @Index(name = "refresh_tokens_jti_idx", columnList = "jti", unique = true),
-        @Index(name = "refresh_token_user_id_idx", columnList = "user_id")
+        @Index(name = "refresh_token_user_id_idx", columnList = "user_id"),
+        @Index(name = "refresh_token_expires_at_idx", columnList = "expires_at, id")
 })
 public class RefreshToken {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    // time-ordered (v7) ids keep inserts at the end of the clustered index
+    @GeneratedValue
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
     private UUID id;
 
     @Column(nullable = false, unique = true, updatable = false)
@@ -32,7 +36,7 @@ public class RefreshToken {
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
 
-    @Column(nullable = false)
+    @Column(name = "expires_at", nullable = false)
     private Instant expiresAt;
 
     @Column(nullable = false)
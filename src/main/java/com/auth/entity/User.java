@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.time.Instant;
 import java.util.HashSet;
@@ -16,9 +18,15 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(indexes = {
+        @Index(name = "user_provider_identity_idx", columnList = "provider, provider_id", unique = true),
+        @Index(name = "user_updated_at_idx", columnList = "updated_at")
+})
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    // time-ordered (v7) ids keep inserts at the end of the clustered index
+    @GeneratedValue
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
     @Column(name = "user_id")
     private UUID id;
     private String name;
@@ -34,7 +42,9 @@ public class User {
     private Provider provider;
     private String providerId;
 
+    // roles of up to 100 users are loaded by one query instead of one query per user
     @ManyToMany(fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
     @JoinTable(name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "roles_id")
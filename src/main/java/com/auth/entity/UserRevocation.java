@@ -0,0 +1,26 @@
+package com.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(indexes = @Index(name = "user_revocation_revoked_at_idx", columnList = "revoked_at"))
+public class UserRevocation {
+
+    // no foreign key: revocations of deleted users must outlive the user row
+    @Id
+    private UUID userId;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+}
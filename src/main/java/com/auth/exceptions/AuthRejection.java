@@ -0,0 +1,33 @@
+package com.auth.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * The ways the security filters turn a request away. Each one has a fixed
+ * status and message, so its error body can be encoded once and reused
+ * (see {@link ErrorResponseService#reject}).
+ */
+@Getter
+public enum AuthRejection {
+
+    TOKEN_EXPIRED("token_expired", HttpStatus.UNAUTHORIZED, "Token has expired"),
+    TOKEN_INVALID("token_invalid", HttpStatus.UNAUTHORIZED, "Invalid token"),
+    USER_DISABLED("user_disabled", HttpStatus.UNAUTHORIZED, "User is disabled!"),
+    UNAUTHENTICATED("unauthenticated", HttpStatus.UNAUTHORIZED, "Full authentication is required to access this resource"),
+    ACCESS_DENIED("access_denied", HttpStatus.FORBIDDEN, "Access Denied"),
+    OAUTH2_EMAIL_REQUIRED("oauth2_email_required", HttpStatus.UNAUTHORIZED, "The identity provider did not share a verified email"),
+    RATE_LIMITED("rate_limited", HttpStatus.TOO_MANY_REQUESTS, "Too many requests"),
+    BODY_TOO_LARGE("body_too_large", HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large");
+
+    // the tag value of the auth.rejections counter
+    private final String reason;
+    private final HttpStatus status;
+    private final String message;
+
+    AuthRejection(String reason, HttpStatus status, String message) {
+        this.reason = reason;
+        this.status = status;
+        this.message = message;
+    }
+}
@@ -1,22 +1,40 @@
 package com.auth.exceptions;
 
 import com.auth.dto.ErrorResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import tools.jackson.databind.ObjectMapper;
+import tools.jackson.core.io.JsonStringEncoder;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
 
 @Service
-@RequiredArgsConstructor
 public class ErrorResponseService {
 
-    private final ObjectMapper objectMapper;
+    private static final byte[] TIMESTAMP_PREFIX = "{\"timestamp\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BODY_SUFFIX = "\"}".getBytes(StandardCharsets.US_ASCII);
+
+    private final Map<AuthRejection, byte[]> rejectionBodies = new EnumMap<>(AuthRejection.class);
+    private final Map<AuthRejection, Counter> rejectionCounters = new EnumMap<>(AuthRejection.class);
+
+    public ErrorResponseService(MeterRegistry meterRegistry) {
+        for (AuthRejection rejection : AuthRejection.values()) {
+            rejectionBodies.put(rejection, encodeBody(rejection));
+            rejectionCounters.put(rejection, Counter.builder("auth.rejections")
+                    .description("Requests rejected by the security filters")
+                    .tag("reason", rejection.getReason())
+                    .register(meterRegistry));
+        }
+    }
 
     public ErrorResponse buildErrorResponse(
             HttpStatus status,
@@ -52,22 +70,44 @@ public class ErrorResponseService {
         return errorResponse;
     }
 
-    public void handleAuthenticationFilterException(
-            HttpServletRequest request,
-            HttpServletResponse response,
-            String message,
-            HttpStatus status
-    ) throws IOException {
+    /**
+     * Writes the error body of a filter rejection. The body is assembled from
+     * bytes encoded at startup, only the timestamp and the escaped path are
+     * added per request.
+     */
+    public void reject(HttpServletRequest request, HttpServletResponse response, AuthRejection rejection) throws IOException {
+        rejectionCounters.get(rejection).increment();
 
-        ErrorResponse errorResponse = this.buildErrorResponse(
-                status,
-                message,
-                request
-        );
-        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        byte[] timestamp = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME).getBytes(StandardCharsets.US_ASCII);
+        byte[] path = JsonStringEncoder.getInstance().quoteAsUTF8(request.getRequestURI());
+        byte[] body = rejectionBodies.get(rejection);
+
+        byte[] json = new byte[TIMESTAMP_PREFIX.length + timestamp.length + body.length + path.length + BODY_SUFFIX.length];
+        int offset = append(json, 0, TIMESTAMP_PREFIX);
+        offset = append(json, offset, timestamp);
+        offset = append(json, offset, body);
+        offset = append(json, offset, path);
+        append(json, offset, BODY_SUFFIX);
+
+        response.setStatus(rejection.getStatus().value());
         response.setContentType(MediaType.APPLICATION_JSON_VALUE);
         response.setCharacterEncoding("UTF-8");
+        response.setContentLength(json.length);
+        response.getOutputStream().write(json);
+    }
+
+    // the fields between the timestamp and the path, in ErrorResponse order
+    private static byte[] encodeBody(AuthRejection rejection) {
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        String body = "\",\"status\":" + rejection.getStatus().value()
+                + ",\"error\":\"" + new String(encoder.quoteAsCharArray(rejection.getStatus().getReasonPhrase()))
+                + "\",\"message\":\"" + new String(encoder.quoteAsCharArray(rejection.getMessage()))
+                + "\",\"path\":\"";
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
 
-        response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+    private static int append(byte[] target, int offset, byte[] source) {
+        System.arraycopy(source, 0, target, offset, source.length);
+        return offset + source.length;
     }
 }
@@ -0,0 +1,12 @@
+package com.auth.exceptions;
+
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingRejectedException() {
+        super("Too many concurrent password checks, try again later");
+    }
+}
@@ -2,12 +2,19 @@ package com.auth.mapper;
 
 import com.auth.dto.UserDto;
 import com.auth.entity.User;
+import com.auth.repository.UserRepository;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface UserMapper {
 
     User mapToUser(UserDto userDto);
 
+    @Mapping(target = "password", ignore = true)
     UserDto mapToUserDto(User user);
+
+    @Mapping(target = "password", ignore = true)
+    @Mapping(target = "roles", ignore = true)
+    UserDto mapToUserDto(UserRepository.UserSummary user);
 }
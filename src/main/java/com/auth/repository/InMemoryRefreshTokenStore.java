@@ -0,0 +1,381 @@
+package com.auth.repository;
+
+import com.auth.entity.RefreshToken;
+import com.auth.entity.User;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Refresh token store kept in memory, for deployments where refresh traffic
+ * should not depend on database writes. Tokens are indexed by jti and by
+ * user, and are dropped once they expire.
+ * <p>
+ * When {@code security.jwt.refresh-token-store-journal} is set, every change
+ * is appended to that file and replayed on startup. The journal is
+ * periodically rewritten as a snapshot of the live tokens so it does not
+ * grow without bound. With the journal on, every write takes one store-wide
+ * lock and appends and flushes a record while holding it, so writes are
+ * serialized and bounded by the journal file; only reads stay lock-free.
+ * Without the journal, writes only contend on the token maps. The journal
+ * holds user ids but no emails; the email of a recovered token is looked up
+ * again on first use. A torn last record is skipped on recovery.
+ * <p>
+ * Tokens only exist on the instance that issued them, so refresh requests
+ * must be routed back to that instance.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "security.jwt.refresh-token-store", havingValue = "memory")
+public class InMemoryRefreshTokenStore implements RefreshTokenStore {
+
+    private final UserRepository userRepository;
+    private final Map<String, StoredToken> tokens = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<String>> tokensByUser = new ConcurrentHashMap<>();
+
+    private final Path journalPath;
+    private final ReentrantLock journalLock = new ReentrantLock();
+    private BufferedWriter journal;
+    private long journalRecords;
+
+    public InMemoryRefreshTokenStore(
+            UserRepository userRepository,
+            @Value("${security.jwt.refresh-token-store-journal:}") String journalPath) {
+
+        this.userRepository = userRepository;
+        this.journalPath = journalPath == null || journalPath.isBlank() ? null : Path.of(journalPath);
+
+        if (this.journalPath != null) {
+            recover();
+        }
+    }
+
+    @Override
+    public RefreshToken save(RefreshToken refreshToken) {
+        if (refreshToken.getId() == null) {
+            refreshToken.setId(timeOrderedId());
+        }
+        if (refreshToken.getCreatedAt() == null) {
+            refreshToken.setCreatedAt(Instant.now());
+        }
+        store(StoredToken.of(refreshToken));
+        return refreshToken;
+    }
+
+    // the user is resolved through the cached email lookup so disabled or deleted users are seen
+    @Override
+    public Optional<RefreshToken> findByJti(String jti) {
+        StoredToken storedToken = tokens.get(jti);
+        if (storedToken == null) {
+            return Optional.empty();
+        }
+        if (storedToken.email() == null) {
+            Optional<String> email = userRepository.findEmailById(storedToken.userId());
+            if (email.isEmpty()) {
+                return Optional.empty();
+            }
+            // a concurrent revoke wins over filling in the email
+            StoredToken withEmail = storedToken.withEmail(email.get());
+            tokens.replace(jti, storedToken, withEmail);
+            storedToken = withEmail;
+        }
+        StoredToken resolved = storedToken;
+        return userRepository.findByEmail(resolved.email())
+                .filter(user -> user.getId().equals(resolved.userId()))
+                .map(resolved::toRefreshToken);
+    }
+
+    @Override
+    public int revokeAllActiveByUser(User user, Instant now) {
+        Set<String> jtis = tokensByUser.get(user.getId());
+        if (jtis == null) {
+            return 0;
+        }
+
+        if (journalPath == null) {
+            int revoked = 0;
+            for (String jti : jtis) {
+                StoredToken storedToken = tokens.get(jti);
+                // only replaced if no concurrent write changed the token since it was read
+                if (isActive(storedToken, now) && tokens.replace(jti, storedToken, storedToken.revoke())) {
+                    revoked++;
+                }
+            }
+            return revoked;
+        }
+
+        // read and append under the write lock so a stale read never overwrites a concurrent save
+        journalLock.lock();
+        try {
+            int revoked = 0;
+            for (String jti : jtis) {
+                StoredToken storedToken = tokens.get(jti);
+                if (isActive(storedToken, now)) {
+                    store(storedToken.revoke());
+                    revoked++;
+                }
+            }
+            return revoked;
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.refresh-token-store-sweep-interval:PT1M}")
+    public void removeExpiredTokens() {
+        Instant now = Instant.now();
+        for (StoredToken storedToken : tokens.values()) {
+            if (!storedToken.expiresAt().isAfter(now) && tokens.remove(storedToken.jti(), storedToken)) {
+                tokensByUser.computeIfPresent(storedToken.userId(), (userId, jtis) -> {
+                    jtis.remove(storedToken.jti());
+                    return jtis.isEmpty() ? null : jtis;
+                });
+            }
+        }
+
+        if (journalPath != null) {
+            journalLock.lock();
+            try {
+                if (journalRecords > 2L * tokens.size() + 1000) {
+                    writeSnapshot();
+                }
+            } catch (IOException e) {
+                log.error("Could not compact refresh token journal {}", journalPath, e);
+            } finally {
+                journalLock.unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (journal != null) {
+            journalLock.lock();
+            try {
+                journal.close();
+            } finally {
+                journalLock.unlock();
+            }
+        }
+    }
+
+    private static boolean isActive(StoredToken storedToken, Instant now) {
+        return storedToken != null && !storedToken.revoked() && storedToken.expiresAt().isAfter(now);
+    }
+
+    // RFC 9562 version 7: millisecond timestamp, then random bits, so ids sort by creation time like the JPA store's
+    static UUID timeOrderedId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = System.currentTimeMillis() << 16 | 0x7000L | random.nextLong() & 0x0FFFL;
+        long leastSigBits = random.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    private void store(StoredToken storedToken) {
+        if (journalPath == null) {
+            index(storedToken);
+            return;
+        }
+
+        // map update and journal append happen together so the journal order matches the map
+        journalLock.lock();
+        try {
+            index(storedToken);
+            journal.write(storedToken.toRecord());
+            journal.newLine();
+            journal.flush();
+            journalRecords++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write refresh token journal", e);
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private void index(StoredToken storedToken) {
+        tokens.put(storedToken.jti(), storedToken);
+        tokensByUser.compute(storedToken.userId(), (userId, jtis) -> {
+            Set<String> userTokens = jtis == null ? ConcurrentHashMap.newKeySet() : jtis;
+            userTokens.add(storedToken.jti());
+            return userTokens;
+        });
+    }
+
+    private void recover() {
+        Map<String, StoredToken> recovered = new HashMap<>();
+        try {
+            if (Files.exists(journalPath)) {
+                try (BufferedReader reader = Files.newBufferedReader(journalPath)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.isBlank()) {
+                            continue;
+                        }
+                        StoredToken storedToken = StoredToken.fromRecord(line);
+                        if (storedToken == null) {
+                            // a crash during an append leaves a partial last record
+                            log.warn("Skipping malformed refresh token journal record in {}", journalPath);
+                            continue;
+                        }
+                        recovered.put(storedToken.jti(), storedToken);
+                    }
+                }
+            }
+
+            Instant now = Instant.now();
+            recovered.values().stream()
+                    .filter(storedToken -> storedToken.expiresAt().isAfter(now))
+                    .forEach(this::index);
+
+            writeSnapshot();
+            log.info("Recovered {} refresh tokens from {}", tokens.size(), journalPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not recover refresh token journal " + journalPath, e);
+        }
+    }
+
+    private void writeSnapshot() throws IOException {
+        Path snapshot = journalPath.resolveSibling(journalPath.getFileName() + ".snapshot");
+        long records = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(snapshot)) {
+            for (StoredToken storedToken : tokens.values()) {
+                writer.write(storedToken.toRecord());
+                writer.newLine();
+                records++;
+            }
+        }
+        // the snapshot must be on disk before it replaces the journal
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+
+        if (journal != null) {
+            journal.close();
+        }
+        Files.move(snapshot, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        journal = Files.newBufferedWriter(journalPath, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        journalRecords = records;
+    }
+
+    private record StoredToken(
+            String jti,
+            UUID id,
+            UUID userId,
+            // not journaled, null for recovered tokens until first use
+            String email,
+            Instant createdAt,
+            Instant expiresAt,
+            boolean revoked,
+            String replacedByToken) {
+
+        static StoredToken of(RefreshToken refreshToken) {
+            return new StoredToken(
+                    refreshToken.getJti(),
+                    refreshToken.getId(),
+                    refreshToken.getUser().getId(),
+                    refreshToken.getUser().getEmail(),
+                    refreshToken.getCreatedAt(),
+                    refreshToken.getExpiresAt(),
+                    refreshToken.isRevoked(),
+                    refreshToken.getReplacedByToken());
+        }
+
+        StoredToken withEmail(String email) {
+            return new StoredToken(jti, id, userId, email, createdAt, expiresAt, revoked, replacedByToken);
+        }
+
+        StoredToken revoke() {
+            return new StoredToken(jti, id, userId, email, createdAt, expiresAt, true, replacedByToken);
+        }
+
+        RefreshToken toRefreshToken(User user) {
+            return RefreshToken.builder()
+                    .id(id)
+                    .jti(jti)
+                    .user(user)
+                    .createdAt(createdAt)
+                    .expiresAt(expiresAt)
+                    .revoked(revoked)
+                    .replacedByToken(replacedByToken)
+                    .build();
+        }
+
+        // free-text fields are Base64 encoded so they can never contain the tab or newline separators,
+        // and a trailing checksum tells a complete record from a torn one
+        String toRecord() {
+            String fields = String.join("\t",
+                    encode(jti),
+                    id.toString(),
+                    userId.toString(),
+                    createdAt.toString(),
+                    expiresAt.toString(),
+                    Boolean.toString(revoked),
+                    replacedByToken == null ? "" : encode(replacedByToken));
+            return fields + "\t" + checksum(fields);
+        }
+
+        static StoredToken fromRecord(String record) {
+            int checksumStart = record.lastIndexOf('\t');
+            if (checksumStart < 0
+                    || !record.substring(checksumStart + 1).equals(checksum(record.substring(0, checksumStart)))) {
+                return null;
+            }
+            String[] fields = record.substring(0, checksumStart).split("\t", -1);
+            if (fields.length != 7) {
+                return null;
+            }
+            try {
+                return new StoredToken(
+                        decode(fields[0]),
+                        UUID.fromString(fields[1]),
+                        UUID.fromString(fields[2]),
+                        null,
+                        Instant.parse(fields[3]),
+                        Instant.parse(fields[4]),
+                        Boolean.parseBoolean(fields[5]),
+                        fields[6].isEmpty() ? null : decode(fields[6]));
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        private static String checksum(String fields) {
+            CRC32 crc = new CRC32();
+            crc.update(fields.getBytes(StandardCharsets.UTF_8));
+            return Long.toHexString(crc.getValue());
+        }
+
+        private static String encode(String value) {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static String decode(String value) {
+            return new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.auth.repository;
+
+import com.auth.entity.RefreshToken;
+import com.auth.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "security.jwt.refresh-token-store", havingValue = "jpa", matchIfMissing = true)
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Override
+    public RefreshToken save(RefreshToken refreshToken) {
+        return refreshTokenRepository.save(refreshToken);
+    }
+
+    @Override
+    public Optional<RefreshToken> findByJti(String jti) {
+        return refreshTokenRepository.findByJti(jti);
+    }
+
+    @Override
+    public int revokeAllActiveByUser(User user, Instant now) {
+        return refreshTokenRepository.revokeAllActiveByUser(user, now);
+    }
+}
@@ -0,0 +1,23 @@
+package com.auth.repository;
+
+import com.auth.entity.JwtSigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface JwtSigningKeyRepository extends JpaRepository<JwtSigningKey, UUID> {
+
+    List<JwtSigningKey> findAllByAlgorithmAndEpochBetween(String algorithm, long fromEpoch, long toEpoch);
+
+    @Transactional
+    @Modifying
+    @Query("delete from JwtSigningKey k where k.algorithm = :algorithm and k.epoch < :epoch")
+    int deleteAllByAlgorithmBefore(@Param("algorithm") String algorithm, @Param("epoch") long epoch);
+}
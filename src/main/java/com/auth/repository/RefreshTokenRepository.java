@@ -2,9 +2,14 @@ package com.auth.repository;
 
 import com.auth.entity.RefreshToken;
 import com.auth.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,5 +20,29 @@ public interface RefreshTokenRepository
 
     Optional<RefreshToken> findByJti(String jti);
 
-    Optional<List<RefreshToken>> findAllByUser(User user);
+    @Modifying
+    @Query("""
+            update RefreshToken t set t.revoked = true
+            where t.user = :user and t.revoked = false and t.expiresAt > :now
+            """)
+    int revokeAllActiveByUser(@Param("user") User user, @Param("now") Instant now);
+
+    // keyset page over tokens expired before the cutoff, ordered by (expiresAt, id)
+    @Query("""
+            select t.id as id, t.expiresAt as expiresAt from RefreshToken t
+            where t.expiresAt < :cutoff
+              and (t.expiresAt > :afterExpiresAt or (t.expiresAt = :afterExpiresAt and t.id > :afterId))
+            order by t.expiresAt, t.id
+            """)
+    List<TokenKey> findExpiredTokenKeys(
+            @Param("cutoff") Instant cutoff,
+            @Param("afterExpiresAt") Instant afterExpiresAt,
+            @Param("afterId") UUID afterId,
+            Limit limit);
+
+    interface TokenKey {
+        UUID getId();
+
+        Instant getExpiresAt();
+    }
 }
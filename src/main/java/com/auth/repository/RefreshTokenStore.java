@@ -0,0 +1,21 @@
+package com.auth.repository;
+
+import com.auth.entity.RefreshToken;
+import com.auth.entity.User;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Storage for refresh tokens. Selected with {@code security.jwt.refresh-token-store}:
+ * {@code jpa} (default) keeps them in the database, {@code memory} keeps them
+ * in this instance's heap.
+ */
+public interface RefreshTokenStore {
+
+    RefreshToken save(RefreshToken refreshToken);
+
+    Optional<RefreshToken> findByJti(String jti);
+
+    int revokeAllActiveByUser(User user, Instant now);
+}
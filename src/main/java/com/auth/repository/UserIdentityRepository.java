@@ -0,0 +1,24 @@
+package com.auth.repository;
+
+import com.auth.entity.Provider;
+import com.auth.entity.User;
+import com.auth.entity.UserIdentity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface UserIdentityRepository extends JpaRepository<UserIdentity, UUID> {
+
+    @Query("""
+            select u from User u left join fetch u.roles
+            where u.id = (select i.user.id from UserIdentity i where i.provider = :provider and i.providerId = :providerId)
+            """)
+    Optional<User> findUserByProviderAndProviderId(
+            @Param("provider") Provider provider,
+            @Param("providerId") String providerId);
+}
@@ -1,15 +1,114 @@
 package com.auth.repository;
 
+import com.auth.config.CacheConfig;
+import com.auth.entity.Provider;
 import com.auth.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
 
+    // roles are joined so a cache miss costs one query
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_EMAIL, key = "T(com.auth.config.CacheConfig).emailKey(#p0)")
+    @EntityGraph(attributePaths = "roles")
     Optional<User> findByEmail(String email);
 
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findByProviderAndProviderId(Provider provider, String providerId);
+
+    @Query("select u.email from User u where u.id = :id")
+    Optional<String> findEmailById(@Param("id") UUID id);
+
+    @Query("select u.email from User u where u.updated_at > :since")
+    List<String> findEmailsUpdatedSince(@Param("since") Instant since);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_EMAIL, key = "T(com.auth.config.CacheConfig).emailKey(#p0.email)")
+    <S extends User> S save(S user);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_EMAIL, key = "T(com.auth.config.CacheConfig).emailKey(#p0.email)")
+    void delete(User user);
+
+    String SUMMARY_COLUMNS = """
+            select u.id as id, u.name as name, u.email as email, u.image as image, u.enabled as enabled,
+                   u.created_at as created_at, u.updated_at as updated_at, u.provider as provider
+            from User u
+            """;
+
+    @Query(SUMMARY_COLUMNS + "where u.id = :id")
+    Optional<UserSummary> findSummaryById(@Param("id") UUID id);
+
+    @Query(SUMMARY_COLUMNS + "where u.email = :email")
+    Optional<UserSummary> findSummaryByEmail(@Param("email") String email);
+
+    @Query(SUMMARY_COLUMNS + "order by u.id")
+    List<UserSummary> findSummaries(Limit limit);
+
+    @Query(SUMMARY_COLUMNS + "where u.id > :after order by u.id")
+    List<UserSummary> findSummariesAfter(@Param("after") UUID after, Limit limit);
+
+    @Query("select u.email from User u where u.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("""
+            select u.id as userId, r.id as roleId, r.name as roleName
+            from User u join u.roles r
+            where u.id in :userIds
+            """)
+    List<UserRole> findRolesByUserIds(@Param("userIds") Collection<UUID> userIds);
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the result;
+    // roles are fetched in the same query because the connection is busy until the stream is closed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("select u from User u left join fetch u.roles order by u.id")
+    Stream<User> streamAllOrderedById();
+
+    /**
+     * User columns needed by the read endpoints, without the password hash.
+     */
+    interface UserSummary {
+        UUID getId();
+
+        String getName();
+
+        String getEmail();
+
+        String getImage();
+
+        boolean isEnabled();
+
+        Instant getCreated_at();
+
+        Instant getUpdated_at();
+
+        Provider getProvider();
+    }
+
+    interface UserRole {
+        UUID getUserId();
+
+        UUID getRoleId();
+
+        String getRoleName();
+    }
+
 }
@@ -0,0 +1,24 @@
+package com.auth.repository;
+
+import com.auth.entity.UserRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UserRevocationRepository extends JpaRepository<UserRevocation, UUID> {
+
+    List<UserRevocation> findAllByRevokedAtAfter(Instant cutoff);
+
+    @Transactional
+    @Modifying
+    @Query("delete from UserRevocation r where r.revokedAt < :cutoff")
+    int deleteAllRevokedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,141 @@
+package com.auth.security;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.crypto.encrypt.BytesEncryptor;
+import org.springframework.security.crypto.encrypt.Encryptors;
+import org.springframework.security.oauth2.client.web.AuthorizationRequestRepository;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Keeps the pending OAuth2 authorization request in a cookie instead of the
+ * HTTP session, so any instance can complete a login started on another.
+ * <p>
+ * The cookie holds the serialized request and its expiry, encrypted with
+ * AES-GCM under a key derived from the configured secret. GCM authenticates
+ * the content, so a cookie that was not issued by us fails to decrypt and is
+ * ignored before anything is deserialized.
+ */
+@Slf4j
+@Component
+public class CookieAuthorizationRequestRepository implements AuthorizationRequestRepository<OAuth2AuthorizationRequest> {
+
+    static final String COOKIE_NAME = "oauth2_auth_request";
+
+    // the secret is high entropy, the salt only separates this key from other uses of it
+    static final String KEY_SALT = "6f61757468322d617574682d72657175657374";
+
+    private static final ObjectInputFilter DESERIALIZATION_FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=20;maxbytes=16384;org.springframework.security.**;java.lang.*;java.util.*;java.time.*;!*");
+
+    private final BytesEncryptor encryptor;
+    private final Duration maxAge;
+    private final boolean cookieSecure;
+
+    public CookieAuthorizationRequestRepository(
+            @Value("${security.oauth2.authorization-request.secret:${security.jwt.secret}}") String secret,
+            @Value("${security.oauth2.authorization-request.max-age:PT3M}") Duration maxAge,
+            @Value("${security.jwt.cookie-secure:true}") boolean cookieSecure) {
+
+        this.encryptor = Encryptors.stronger(secret, KEY_SALT);
+        this.maxAge = maxAge;
+        this.cookieSecure = cookieSecure;
+    }
+
+    @Override
+    public OAuth2AuthorizationRequest loadAuthorizationRequest(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                return decode(cookie.getValue());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void saveAuthorizationRequest(
+            OAuth2AuthorizationRequest authorizationRequest,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+
+        if (authorizationRequest == null) {
+            writeCookie(response, "", Duration.ZERO);
+            return;
+        }
+        writeCookie(response, encode(authorizationRequest), maxAge);
+    }
+
+    @Override
+    public OAuth2AuthorizationRequest removeAuthorizationRequest(HttpServletRequest request, HttpServletResponse response) {
+        OAuth2AuthorizationRequest authorizationRequest = loadAuthorizationRequest(request);
+        if (authorizationRequest != null) {
+            writeCookie(response, "", Duration.ZERO);
+        }
+        return authorizationRequest;
+    }
+
+    // SameSite=Lax, because the provider sends the user back with a top-level cross-site redirect
+    private void writeCookie(HttpServletResponse response, String value, Duration cookieMaxAge) {
+        ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, value)
+                .httpOnly(true)
+                .secure(cookieSecure)
+                .path("/")
+                .maxAge(cookieMaxAge)
+                .sameSite("Lax")
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    private String encode(OAuth2AuthorizationRequest authorizationRequest) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            // the expiry is inside the encrypted payload, so it holds even if the browser keeps the cookie
+            output.writeLong(Instant.now().plus(maxAge).getEpochSecond());
+            try (ObjectOutputStream objectOutput = new ObjectOutputStream(output)) {
+                objectOutput.writeObject(authorizationRequest);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not serialize the authorization request", e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(encryptor.encrypt(bytes.toByteArray()));
+    }
+
+    private OAuth2AuthorizationRequest decode(String value) {
+        try {
+            byte[] plain = encryptor.decrypt(Base64.getUrlDecoder().decode(value));
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(plain));
+            if (Instant.now().getEpochSecond() > input.readLong()) {
+                return null;
+            }
+            try (ObjectInputStream objectInput = new ObjectInputStream(input)) {
+                objectInput.setObjectInputFilter(DESERIALIZATION_FILTER);
+                return (OAuth2AuthorizationRequest) objectInput.readObject();
+            }
+        } catch (RuntimeException | IOException | ClassNotFoundException e) {
+            log.debug("Ignoring unreadable authorization request cookie", e);
+            return null;
+        }
+    }
+}
@@ -2,22 +2,40 @@ package com.auth.security;
 
 import com.auth.entity.User;
 import com.auth.repository.UserRepository;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailService implements UserDetailsService {
+public class CustomUserDetailService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final RoleRegistry roleRegistry;
+    private final ObservationRegistry observationRegistry;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException(email));
-        return new CustomUserDetails(user);
+        return Observation.createNotStarted("auth.user_details.load", observationRegistry).observe(() -> {
+            User user = userRepository.findByEmail(email)
+                    .orElseThrow(() -> new UsernameNotFoundException(email));
+            return new CustomUserDetails(user, roleRegistry.authorities(user.getRoles()));
+        });
+    }
+
+    // called by the authentication provider after a successful login when the stored hash is outdated
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .flatMap(cachedUser -> userRepository.findById(cachedUser.getId()))
+                .orElseThrow(() -> new UsernameNotFoundException(userDetails.getUsername()));
+        user.setPassword(newPassword);
+        User savedUser = userRepository.save(user);
+        return new CustomUserDetails(savedUser, roleRegistry.authorities(savedUser.getRoles()));
     }
 }
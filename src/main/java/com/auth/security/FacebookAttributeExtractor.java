@@ -0,0 +1,46 @@
+package com.auth.security;
+
+import com.auth.entity.Provider;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+
+import static com.auth.security.ProviderAttributeExtractor.attribute;
+
+@Component
+public class FacebookAttributeExtractor implements ProviderAttributeExtractor {
+
+    @Override
+    public Set<String> registrationIds() {
+        return Set.of("facebook");
+    }
+
+    @Override
+    public OAuth2UserInfo extract(OAuth2User user) {
+        // absent for accounts registered with a phone number or when the email permission was declined;
+        // such logins only reach accounts already linked to this Facebook id
+        String email = attribute(user, "email");
+        if (email != null && email.isBlank()) {
+            email = null;
+        }
+        return new OAuth2UserInfo(
+                Provider.FACEBOOK,
+                attribute(user, "id"),
+                email,
+                // the Graph API does not say whether the email was verified
+                false,
+                attribute(user, "name"),
+                pictureUrl(user.getAttributes().get("picture")));
+    }
+
+    // the Graph API nests the picture as {"data": {"url": ...}}
+    private static String pictureUrl(Object picture) {
+        if (picture instanceof Map<?, ?> pictureMap && pictureMap.get("data") instanceof Map<?, ?> data) {
+            Object url = data.get("url");
+            return url == null ? null : url.toString();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,39 @@
+package com.auth.security;
+
+import com.auth.entity.Provider;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+import static com.auth.security.ProviderAttributeExtractor.attribute;
+
+@Component
+public class GithubAttributeExtractor implements ProviderAttributeExtractor {
+
+    @Override
+    public Set<String> registrationIds() {
+        return Set.of("github");
+    }
+
+    @Override
+    public OAuth2UserInfo extract(OAuth2User user) {
+        String githubId = attribute(user, "id");
+        String email = attribute(user, GithubOAuth2UserService.VERIFIED_PRIMARY_EMAIL);
+        boolean emailVerified = email != null;
+        if (email == null) {
+            email = attribute(user, "email");
+        }
+        // the email is null when the GitHub user keeps it private
+        if (email == null) {
+            email = githubId + "+" + attribute(user, "login") + "@users.noreply.github.com";
+        }
+        return new OAuth2UserInfo(
+                Provider.GITHUB,
+                githubId,
+                email,
+                emailVerified,
+                attribute(user, "name"),
+                attribute(user, "avatar_url"));
+    }
+}
@@ -0,0 +1,79 @@
+package com.auth.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserService;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads OAuth2 users like {@link DefaultOAuth2UserService} and, for GitHub,
+ * adds the verified primary email from the {@code /user/emails} endpoint as
+ * {@link #VERIFIED_PRIMARY_EMAIL}. The profile's public email says nothing
+ * about verification, so only this one may link a login to an existing
+ * account.
+ */
+@Slf4j
+@Component
+public class GithubOAuth2UserService implements OAuth2UserService<OAuth2UserRequest, OAuth2User> {
+
+    public static final String VERIFIED_PRIMARY_EMAIL = "verified_primary_email";
+
+    private static final ParameterizedTypeReference<List<Map<String, Object>>> EMAILS =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final DefaultOAuth2UserService delegate = new DefaultOAuth2UserService();
+    private final RestClient restClient = RestClient.create();
+
+    @Override
+    public OAuth2User loadUser(OAuth2UserRequest userRequest) throws OAuth2AuthenticationException {
+        OAuth2User user = delegate.loadUser(userRequest);
+        if (!"github".equals(userRequest.getClientRegistration().getRegistrationId())) {
+            return user;
+        }
+
+        String email = verifiedPrimaryEmail(userRequest);
+        if (email == null) {
+            return user;
+        }
+        Map<String, Object> attributes = new HashMap<>(user.getAttributes());
+        attributes.put(VERIFIED_PRIMARY_EMAIL, email);
+        String nameAttributeKey = userRequest.getClientRegistration().getProviderDetails()
+                .getUserInfoEndpoint().getUserNameAttributeName();
+        return new DefaultOAuth2User(user.getAuthorities(), attributes, nameAttributeKey);
+    }
+
+    // needs the user:email scope; without it the login goes on with an unverified email
+    private String verifiedPrimaryEmail(OAuth2UserRequest userRequest) {
+        String userInfoUri = userRequest.getClientRegistration().getProviderDetails().getUserInfoEndpoint().getUri();
+        try {
+            List<Map<String, Object>> emails = restClient.get()
+                    .uri(userInfoUri + "/emails")
+                    .headers(headers -> headers.setBearerAuth(userRequest.getAccessToken().getTokenValue()))
+                    .retrieve()
+                    .body(EMAILS);
+            if (emails == null) {
+                return null;
+            }
+            return emails.stream()
+                    .filter(email -> Boolean.TRUE.equals(email.get("primary")) && Boolean.TRUE.equals(email.get("verified")))
+                    .map(email -> (String) email.get("email"))
+                    .findFirst()
+                    .orElse(null);
+        } catch (RestClientException e) {
+            log.warn("Could not read the GitHub emails of the user: {}", e.getMessage());
+            return null;
+        }
+    }
+}
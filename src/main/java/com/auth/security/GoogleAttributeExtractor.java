@@ -0,0 +1,29 @@
+package com.auth.security;
+
+import com.auth.entity.Provider;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+import static com.auth.security.ProviderAttributeExtractor.attribute;
+
+@Component
+public class GoogleAttributeExtractor implements ProviderAttributeExtractor {
+
+    @Override
+    public Set<String> registrationIds() {
+        return Set.of("google");
+    }
+
+    @Override
+    public OAuth2UserInfo extract(OAuth2User user) {
+        return new OAuth2UserInfo(
+                Provider.GOOGLE,
+                attribute(user, "sub"),
+                attribute(user, "email"),
+                "true".equals(attribute(user, "email_verified")),
+                attribute(user, "name"),
+                attribute(user, "picture"));
+    }
+}
@@ -1,17 +1,20 @@
 package com.auth.security;
 
+import com.auth.exceptions.AuthRejection;
 import com.auth.exceptions.ErrorResponseService;
-import com.auth.service.JwtService;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
+import com.auth.service.UserRevocationService;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -20,14 +23,36 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtService jwtService;
+    private final VerifiedTokenCache verifiedTokenCache;
     private final UserDetailsService userDetailsService;
     private final ErrorResponseService errorResponseService;
+    private final UserRevocationService userRevocationService;
+    private final RoleRegistry roleRegistry;
+    private final ObservationRegistry observationRegistry;
+    private final boolean statelessPrincipal;
+
+    public JwtAuthenticationFilter(
+            VerifiedTokenCache verifiedTokenCache,
+            UserDetailsService userDetailsService,
+            ErrorResponseService errorResponseService,
+            UserRevocationService userRevocationService,
+            RoleRegistry roleRegistry,
+            ObservationRegistry observationRegistry,
+            @Value("${security.jwt.stateless-principal:false}") boolean statelessPrincipal) {
+
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.userDetailsService = userDetailsService;
+        this.errorResponseService = errorResponseService;
+        this.userRevocationService = userRevocationService;
+        this.roleRegistry = roleRegistry;
+        this.observationRegistry = observationRegistry;
+        this.statelessPrincipal = statelessPrincipal;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -37,45 +62,71 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String header = request.getHeader("Authorization");
 
         if (header != null && header.startsWith("Bearer ") && SecurityContextHolder.getContext().getAuthentication() == null) {
-            try {
-                String token = header.substring(7);
-
-                Jws<Claims> parsedToken = jwtService.parse(token);
-                Claims payload = parsedToken.getPayload();
-
-                if (!"access".equals(payload.get("typ"))) {
-                    return;
-                }
-
-                String email = payload.getSubject();
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+            boolean authenticated = Observation.createNotStarted("auth.filter.jwt", observationRegistry)
+                    .observeChecked(() -> authenticate(header.substring(7), request, response));
+            if (!authenticated) {
+                return;
+            }
+        }
 
-                if (!userDetails.isEnabled()) {
-                    errorResponseService.handleAuthenticationFilterException(request, response, "User is disabled!", HttpStatus.UNAUTHORIZED);
-                    return;
-                }
+        filterChain.doFilter(request, response);
+    }
 
-                UsernamePasswordAuthenticationToken authenticationToken =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities()
-                        );
+    // returns false when the request must not continue down the chain
+    private boolean authenticate(String token, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            VerifiedToken verifiedToken = verifiedTokenCache.verify(token);
+            if (!verifiedToken.isAccessToken()) {
+                errorResponseService.reject(request, response, AuthRejection.TOKEN_INVALID);
+                return false;
+            }
 
-                authenticationToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request));
+            UserDetails userDetails = statelessPrincipal
+                    ? buildPrincipal(verifiedToken)
+                    : userDetailsService.loadUserByUsername(verifiedToken.subject());
 
-                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+            if (!userDetails.isEnabled()) {
+                errorResponseService.reject(request, response, AuthRejection.USER_DISABLED);
+                return false;
+            }
 
-            } catch (JwtException e) {
-                SecurityContextHolder.clearContext();
-                errorResponseService.handleAuthenticationFilterException(request, response, e.getMessage(), HttpStatus.UNAUTHORIZED);
+            UsernamePasswordAuthenticationToken authenticationToken =
+                    new UsernamePasswordAuthenticationToken(
+                            userDetails,
+                            null,
+                            userDetails.getAuthorities()
+                    );
+
+            authenticationToken.setDetails(
+                    new WebAuthenticationDetailsSource().buildDetails(request));
+
+            SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+            return true;
+
+        } catch (ExpiredJwtException e) {
+            SecurityContextHolder.clearContext();
+            errorResponseService.reject(request, response, AuthRejection.TOKEN_EXPIRED);
+            return false;
+        } catch (JwtException e) {
+            SecurityContextHolder.clearContext();
+            errorResponseService.reject(request, response, AuthRejection.TOKEN_INVALID);
+            return false;
+        } catch (DisabledException e) {
+            SecurityContextHolder.clearContext();
+            errorResponseService.reject(request, response, AuthRejection.USER_DISABLED);
+            return false;
+        }
+    }
 
-                return;
-            }
+    // build the principal from the token claims instead of loading the user
+    private UserDetails buildPrincipal(VerifiedToken verifiedToken) {
+        if (userRevocationService.isRevoked(verifiedToken.userId(), verifiedToken.issuedAt())) {
+            throw new DisabledException("User is disabled!");
         }
 
-        filterChain.doFilter(request, response);
+        List<GrantedAuthority> authorities = roleRegistry.authoritiesForNames(verifiedToken.roles());
+
+        return new JwtUserPrincipal(verifiedToken.userId(), verifiedToken.subject(), authorities);
     }
 
     @Override
@@ -0,0 +1,326 @@
+package com.auth.security;
+
+import com.auth.entity.JwtSigningKey;
+import com.auth.repository.JwtSigningKeyRepository;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Owns the keys used to sign and verify tokens.
+ * <p>
+ * With {@code HS512} (the default) every token is signed with the configured
+ * secret, as before. With {@code ES256} or {@code EdDSA} the key pair changes
+ * every rotation interval. Key pairs are generated at random and shared
+ * through the jwt_signing_key table, with the private key encrypted by a key
+ * derived from the secret, so a leaked key only exposes its own interval.
+ * The first instance to reach an interval inserts its key; the others lose
+ * on the unique kid and use the stored one. Previous keys stay valid long
+ * enough to verify the longest-lived token they signed, and the next key is
+ * created and published ahead of time so every instance and every resource
+ * server caching the JWKS already knows it when it becomes active.
+ */
+@Slf4j
+@Component
+public class JwtKeyManager extends LocatorAdapter<Key> {
+
+    private static final String HMAC_ALGORITHM = "HS512";
+    private static final int GCM_IV_BYTES = 12;
+    private static final int GCM_TAG_BITS = 128;
+
+    private final String algorithm;
+    private final SecretKey secretKey;
+    private final SecretKey keyEncryptionKey;
+    private final SignatureAlgorithm signatureAlgorithm;
+    private final String keyFactoryAlgorithm;
+    private final JwtSigningKeyRepository signingKeyRepository;
+    private final long rotationSeconds;
+    private final long retainedEpochs;
+    private final SecureRandom random = new SecureRandom();
+    private volatile KeySet keySet;
+
+    public JwtKeyManager(
+            JwtSigningKeyRepository signingKeyRepository,
+            @Value("${security.jwt.secret}") String secret,
+            @Value("${security.jwt.algorithm:HS512}") String algorithm,
+            @Value("${security.jwt.key-rotation-interval:P1D}") Duration rotationInterval,
+            @Value("${security.jwt.refresh-ttl-seconds}") long refreshTtlSeconds) {
+
+        if (secret == null || secret.isBlank() || secret.length() < 64) {
+            throw new IllegalArgumentException("Invalid JWT Secret Key");
+        }
+
+        this.algorithm = algorithm;
+        this.signingKeyRepository = signingKeyRepository;
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        this.rotationSeconds = rotationInterval.toSeconds();
+        if (rotationSeconds <= 0) {
+            throw new IllegalArgumentException("Invalid JWT key rotation interval");
+        }
+        this.retainedEpochs = (refreshTtlSeconds + rotationSeconds - 1) / rotationSeconds;
+
+        switch (algorithm) {
+            case HMAC_ALGORITHM -> {
+                this.secretKey = Keys.hmacShaKeyFor(secretBytes);
+                this.signatureAlgorithm = null;
+                this.keyFactoryAlgorithm = null;
+            }
+            case "ES256" -> {
+                this.secretKey = null;
+                this.signatureAlgorithm = Jwts.SIG.ES256;
+                this.keyFactoryAlgorithm = "EC";
+            }
+            case "EdDSA" -> {
+                this.secretKey = null;
+                this.signatureAlgorithm = Jwts.SIG.EdDSA;
+                this.keyFactoryAlgorithm = "EdDSA";
+            }
+            default -> throw new IllegalArgumentException("Unsupported JWT algorithm " + algorithm);
+        }
+        this.keyEncryptionKey = new SecretKeySpec(hmac(secretBytes, "jwt-signing-key-encryption"), "AES");
+
+        rotateKeys();
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public JwtBuilder sign(JwtBuilder builder) {
+        if (secretKey != null) {
+            return builder.signWith(secretKey);
+        }
+        SigningKey activeKey = currentKeySet().activeKey();
+        builder.header().keyId(activeKey.kid());
+        return builder.signWith(activeKey.keyPair().getPrivate(), signatureAlgorithm);
+    }
+
+    @Override
+    protected Key locate(JwsHeader header) {
+        if (secretKey != null) {
+            return secretKey;
+        }
+        SigningKey key = currentKeySet().verificationKeys().get(header.getKeyId());
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown signing key " + header.getKeyId());
+        }
+        return key.keyPair().getPublic();
+    }
+
+    public PublishedJwks getJwks() {
+        return currentKeySet().jwks();
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.key-rotation-check-interval:PT1M}")
+    public synchronized void rotateKeys() {
+        long epoch = currentEpoch();
+        KeySet current = keySet;
+        if (current != null && current.epoch() == epoch) {
+            return;
+        }
+        keySet = buildKeySet(epoch);
+        if (signatureAlgorithm != null) {
+            log.info("Active JWT signing key is {}", keySet.activeKey().kid());
+        }
+    }
+
+    // the scheduler may lag behind an interval boundary, so signing checks the epoch as well
+    private KeySet currentKeySet() {
+        KeySet current = keySet;
+        if (current.epoch() != currentEpoch()) {
+            rotateKeys();
+            current = keySet;
+        }
+        return current;
+    }
+
+    private long currentEpoch() {
+        return Math.floorDiv(Instant.now().getEpochSecond(), rotationSeconds);
+    }
+
+    private KeySet buildKeySet(long epoch) {
+        if (signatureAlgorithm == null) {
+            return new KeySet(epoch, null, Map.of(), PublishedJwks.of(List.of()));
+        }
+
+        long fromEpoch = epoch - retainedEpochs;
+        Map<Long, JwtSigningKey> stored = storedKeys(fromEpoch, epoch + 1);
+        if (!stored.containsKey(epoch) || !stored.containsKey(epoch + 1)) {
+            for (long keyEpoch = epoch; keyEpoch <= epoch + 1; keyEpoch++) {
+                if (!stored.containsKey(keyEpoch)) {
+                    insertKey(keyEpoch);
+                }
+            }
+            // another instance may have won the insert, so the stored keys are the ones every instance uses
+            stored = storedKeys(fromEpoch, epoch + 1);
+        }
+        signingKeyRepository.deleteAllByAlgorithmBefore(algorithm, fromEpoch);
+
+        Map<String, SigningKey> verificationKeys = new HashMap<>();
+        List<PublicJwk<?>> jwks = new ArrayList<>();
+        for (JwtSigningKey storedKey : stored.values()) {
+            SigningKey key = decode(storedKey);
+            verificationKeys.put(key.kid(), key);
+            jwks.add(Jwks.builder()
+                    .key(key.keyPair().getPublic())
+                    .id(key.kid())
+                    .algorithm(algorithm)
+                    .publicKeyUse("sig")
+                    .build());
+        }
+        SigningKey activeKey = verificationKeys.get(kid(epoch));
+        if (activeKey == null) {
+            throw new IllegalStateException("No JWT signing key stored for " + kid(epoch));
+        }
+        return new KeySet(epoch, activeKey, Map.copyOf(verificationKeys), PublishedJwks.of(jwks));
+    }
+
+    // sorted by epoch so every instance publishes the same JWKS document
+    private Map<Long, JwtSigningKey> storedKeys(long fromEpoch, long toEpoch) {
+        Map<Long, JwtSigningKey> keys = new TreeMap<>();
+        for (JwtSigningKey key : signingKeyRepository.findAllByAlgorithmAndEpochBetween(algorithm, fromEpoch, toEpoch)) {
+            keys.put(key.getEpoch(), key);
+        }
+        return keys;
+    }
+
+    private void insertKey(long epoch) {
+        KeyPair keyPair = signatureAlgorithm.keyPair().random(random).build();
+        String kid = kid(epoch);
+        try {
+            signingKeyRepository.save(JwtSigningKey.builder()
+                    .kid(kid)
+                    .algorithm(algorithm)
+                    .epoch(epoch)
+                    .publicKey(keyPair.getPublic().getEncoded())
+                    .encryptedPrivateKey(encrypt(kid, keyPair.getPrivate().getEncoded()))
+                    .build());
+            log.info("Created JWT signing key {}", kid);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("JWT signing key {} was created by another instance", kid);
+        }
+    }
+
+    private SigningKey decode(JwtSigningKey storedKey) {
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance(keyFactoryAlgorithm);
+            PublicKey publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(storedKey.getPublicKey()));
+            PrivateKey privateKey = keyFactory.generatePrivate(
+                    new PKCS8EncodedKeySpec(decrypt(storedKey.getKid(), storedKey.getEncryptedPrivateKey())));
+            return new SigningKey(storedKey.getKid(), new KeyPair(publicKey, privateKey));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not read JWT signing key " + storedKey.getKid()
+                    + ", was it written with another secret?", e);
+        }
+    }
+
+    // the kid is authenticated with the key, so a stored key cannot be moved to another interval
+    private byte[] encrypt(String kid, byte[] plaintext) {
+        try {
+            byte[] iv = new byte[GCM_IV_BYTES];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] ciphertext = cipher.doFinal(plaintext);
+            byte[] encrypted = Arrays.copyOf(iv, GCM_IV_BYTES + ciphertext.length);
+            System.arraycopy(ciphertext, 0, encrypted, GCM_IV_BYTES, ciphertext.length);
+            return encrypted;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt JWT signing key", e);
+        }
+    }
+
+    private byte[] decrypt(String kid, byte[] encrypted) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(GCM_TAG_BITS, encrypted, 0, GCM_IV_BYTES));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        return cipher.doFinal(encrypted, GCM_IV_BYTES, encrypted.length - GCM_IV_BYTES);
+    }
+
+    private String kid(long epoch) {
+        return algorithm + "-" + epoch;
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private record SigningKey(String kid, KeyPair keyPair) {
+    }
+
+    private record KeySet(
+            long epoch,
+            SigningKey activeKey,
+            Map<String, SigningKey> verificationKeys,
+            PublishedJwks jwks) {
+    }
+
+    /**
+     * JWKS document encoded once per rotation, together with its ETag.
+     */
+    public record PublishedJwks(byte[] body, String etag) {
+
+        static PublishedJwks of(List<PublicJwk<?>> jwks) {
+            StringBuilder json = new StringBuilder("{\"keys\":[");
+            for (int i = 0; i < jwks.size(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append(Jwks.json(jwks.get(i)));
+            }
+            byte[] body = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+                return new PublishedJwks(body, "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.auth.security;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Principal rebuilt from the claims of a verified access token, used when the
+ * filter runs in stateless mode and does not load the user from the database.
+ */
+public record JwtUserPrincipal(
+        UUID userId,
+        String email,
+        Collection<? extends GrantedAuthority> authorities
+) implements UserDetails {
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public @Nullable String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+}
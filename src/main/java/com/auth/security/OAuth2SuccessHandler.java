@@ -1,12 +1,15 @@
 package com.auth.security;
 
 import com.auth.dto.TokenResponse;
-import com.auth.entity.Provider;
 import com.auth.entity.RefreshToken;
 import com.auth.entity.User;
-import com.auth.repository.UserRepository;
+import com.auth.exceptions.AuthRejection;
+import com.auth.exceptions.ErrorResponseService;
 import com.auth.service.RefreshTokenService;
 import com.auth.service.TokenResponseService;
+import com.auth.service.UserService;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -14,63 +17,56 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.Optional;
 
 @Slf4j
 @RequiredArgsConstructor
 @Component
 public class OAuth2SuccessHandler implements AuthenticationSuccessHandler {
 
-    private final UserRepository userRepository;
+    private final ProviderAttributeExtractors attributeExtractors;
+    private final UserService userService;
     private final RefreshTokenService refreshTokenService;
     private final TokenResponseService tokenResponseService;
+    private final ErrorResponseService errorResponseService;
+    private final ObservationRegistry observationRegistry;
 
     @Override
     public void onAuthenticationSuccess(
             HttpServletRequest request,
             HttpServletResponse response,
             Authentication authentication) throws IOException, ServletException {
-        log.info("Authentication successful");
-        log.info(authentication.toString());
-
-        OAuth2User oAuth2User = (OAuth2User) authentication.getPrincipal();
 
         String registrationId = extractRegistrationId(authentication);
-        log.info("Registration Id: " + registrationId);
-        log.info("User : " + oAuth2User.getAttributes().toString());
-
-
-        User user = null;
-        switch (registrationId) {
-            case "google" -> {
-                String googleId = oAuth2User.getAttributes().getOrDefault("sub","").toString();
-                String email = oAuth2User.getAttributes().getOrDefault("email","").toString();
-                String name = oAuth2User.getAttributes().getOrDefault("name","").toString();
-                String picture = oAuth2User.getAttributes().getOrDefault("picture","").toString();
-
-                user = findOrCreateUser(email,name,picture,Provider.GOOGLE,googleId);
-
-            }
-
-            case "github" -> {
-                String githubId = oAuth2User.getAttributes().getOrDefault("id","").toString();
-                String name = oAuth2User.getAttributes().getOrDefault("name","").toString();
-                String email = oAuth2User.getAttributes().get("email").toString() != null
-                        ? oAuth2User.getAttributes().get("email").toString()
-                        : oAuth2User.getAttributes().get("login").toString() + "@github.com";
-                String picture = oAuth2User.getAttributes().getOrDefault("avatar_url","").toString();
+        Observation.createNotStarted("auth.oauth2.success", observationRegistry)
+                .lowCardinalityKeyValue("provider", registrationId)
+                .observeChecked(() -> handleSuccess(request, response, authentication, registrationId));
+    }
 
-                user = findOrCreateUser(email,name,picture,Provider.GITHUB,githubId);
-            }
+    private void handleSuccess(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Authentication authentication,
+            String registrationId) throws IOException {
+        OAuth2User oAuth2User = (OAuth2User) authentication.getPrincipal();
+        log.debug("OAuth2 authentication successful with {}", registrationId);
+        if (log.isTraceEnabled()) {
+            log.trace("OAuth2 attributes: {}", oAuth2User.getAttributes());
+        }
 
-            default -> {
-                throw new RuntimeException("Invalid registration id");
-            }
+        User user;
+        try {
+            OAuth2UserInfo userInfo = attributeExtractors.extract(registrationId, oAuth2User);
+            user = userService.findOrCreateOAuth2User(userInfo);
+        } catch (OAuth2AuthenticationException e) {
+            log.debug("OAuth2 login with {} rejected: {}", registrationId, e.getError());
+            errorResponseService.reject(request, response, AuthRejection.OAUTH2_EMAIL_REQUIRED);
+            return;
         }
 
         RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
@@ -86,20 +82,4 @@ public class OAuth2SuccessHandler implements AuthenticationSuccessHandler {
         }
         throw new IllegalStateException("Authentication is not an OAuth2AuthenticationToken");
     }
-
-    private User findOrCreateUser(String email, String name, String picture, Provider provider, String providerId) {
-        Optional<User> existingUser = userRepository.findByEmail(email);
-        if(existingUser.isPresent()) {
-            log.info("User already exists");
-            User user = existingUser.get();
-            log.info(existingUser.toString());
-            return user;
-        }
-        else {
-            User user = new User(name, email, picture, true, provider, providerId);
-            userRepository.save(user);
-            log.info("User created using " + provider.name().toLowerCase());
-            return user;
-        }
-    }
 }
@@ -0,0 +1,21 @@
+package com.auth.security;
+
+import com.auth.entity.Provider;
+
+/**
+ * The identity attributes of an OAuth2 login, read once from the
+ * provider's attribute map. {@code provider} and {@code providerId}
+ * identify the account; the other fields may be null.
+ * {@code emailVerified} is only true when the provider asserts the user
+ * owns the email, which is required to link the login to an existing
+ * account with that email.
+ */
+public record OAuth2UserInfo(
+        Provider provider,
+        String providerId,
+        String email,
+        boolean emailVerified,
+        String name,
+        String picture
+) {
+}
@@ -0,0 +1,51 @@
+package com.auth.security;
+
+import com.auth.entity.Provider;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Reads the identity of any OpenID Connect provider from its ID token, which
+ * was validated against the provider's keys during login (see
+ * {@link com.auth.config.OidcConfig}). It handles every registration that
+ * has no extractor of its own, so an enterprise IdP only needs a
+ * {@code spring.security.oauth2.client} registration with an issuer URI.
+ * <p>
+ * Subjects are only unique per issuer, so the issuer is part of the
+ * provider id. Logins are refused unless the IdP asserts a verified email,
+ * because the email links the login to an existing account.
+ */
+@Component
+public class OidcAttributeExtractor implements ProviderAttributeExtractor {
+
+    @Override
+    public Set<String> registrationIds() {
+        return Set.of();
+    }
+
+    @Override
+    public OAuth2UserInfo extract(OAuth2User user) {
+        if (!(user instanceof OidcUser oidcUser)) {
+            throw new IllegalStateException("OIDC login without an ID token");
+        }
+        if (!Boolean.TRUE.equals(oidcUser.getEmailVerified())) {
+            throw new OAuth2AuthenticationException(
+                    new OAuth2Error("unverified_email", "The identity provider did not verify the email", null));
+        }
+
+        OidcIdToken idToken = oidcUser.getIdToken();
+        return new OAuth2UserInfo(
+                Provider.OIDC,
+                idToken.getIssuer() + "|" + idToken.getSubject(),
+                oidcUser.getEmail(),
+                true,
+                oidcUser.getFullName(),
+                oidcUser.getPicture());
+    }
+}
@@ -0,0 +1,25 @@
+package com.auth.security;
+
+import org.springframework.security.oauth2.core.user.OAuth2User;
+
+import java.util.Set;
+
+/**
+ * Reads the identity of an OAuth2 login from the principal of one kind of
+ * provider. Implementations are Spring beans and are looked up by client
+ * registration id through {@link ProviderAttributeExtractors}.
+ */
+public interface ProviderAttributeExtractor {
+
+    /**
+     * The client registration ids this extractor handles.
+     */
+    Set<String> registrationIds();
+
+    OAuth2UserInfo extract(OAuth2User user);
+
+    static String attribute(OAuth2User user, String name) {
+        Object value = user.getAttributes().get(name);
+        return value == null ? null : value.toString();
+    }
+}
@@ -0,0 +1,47 @@
+package com.auth.security;
+
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the {@link ProviderAttributeExtractor} of a client registration.
+ * The registration id map is built once at startup; registrations without
+ * an extractor of their own fall back to {@link OidcAttributeExtractor}
+ * when the login produced an ID token.
+ */
+@Component
+public class ProviderAttributeExtractors {
+
+    private final Map<String, ProviderAttributeExtractor> extractors;
+    private final OidcAttributeExtractor oidcExtractor;
+
+    public ProviderAttributeExtractors(List<ProviderAttributeExtractor> extractors, OidcAttributeExtractor oidcExtractor) {
+        Map<String, ProviderAttributeExtractor> byRegistrationId = new HashMap<>();
+        for (ProviderAttributeExtractor extractor : extractors) {
+            for (String registrationId : extractor.registrationIds()) {
+                ProviderAttributeExtractor previous = byRegistrationId.put(registrationId, extractor);
+                if (previous != null) {
+                    throw new IllegalStateException("More than one attribute extractor for registration " + registrationId);
+                }
+            }
+        }
+        this.extractors = Map.copyOf(byRegistrationId);
+        this.oidcExtractor = oidcExtractor;
+    }
+
+    public OAuth2UserInfo extract(String registrationId, OAuth2User user) {
+        ProviderAttributeExtractor extractor = extractors.get(registrationId);
+        if (extractor == null) {
+            if (!(user instanceof OidcUser)) {
+                throw new IllegalStateException("No attribute extractor for registration " + registrationId);
+            }
+            extractor = oidcExtractor;
+        }
+        return extractor.extract(user);
+    }
+}
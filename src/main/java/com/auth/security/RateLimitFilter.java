@@ -0,0 +1,214 @@
+package com.auth.security;
+
+import com.auth.config.RateLimitProperties;
+import com.auth.exceptions.AuthRejection;
+import com.auth.exceptions.ErrorResponseService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limits the unauthenticated auth endpoints per client IP and per
+ * email before any password hashing or database work happens. Buckets live
+ * in a bounded map and are dropped after being idle for the configured
+ * time. Endpoints are matched on the decoded path, like the controllers
+ * and the security rules, so encoded variants of a path are limited too.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+
+    private final ErrorResponseService errorResponseService;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final List<EndpointMatcher> endpoints;
+    private final Cache<String, TokenBucket> buckets;
+    private final Counter ipRejections;
+    private final Counter emailRejections;
+
+    public RateLimitFilter(
+            RateLimitProperties properties,
+            ErrorResponseService errorResponseService,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+
+        this.errorResponseService = errorResponseService;
+        this.objectMapper = objectMapper;
+        this.enabled = properties.enabled();
+        this.endpoints = properties.endpoints().stream()
+                .map(endpoint -> new EndpointMatcher(
+                        PathPatternRequestMatcher.pathPattern(HttpMethod.POST, endpoint.path()), endpoint))
+                .toList();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.maxKeys())
+                .expireAfterAccess(properties.idleTimeout())
+                .build();
+        this.ipRejections = rejectionCounter(meterRegistry, "ip");
+        this.emailRejections = rejectionCounter(meterRegistry, "email");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        RateLimitProperties.Endpoint endpoint = findEndpoint(request);
+        long now = System.nanoTime();
+
+        if (endpoint.perIp() != null) {
+            long wait = acquire(endpoint.path() + "|ip|" + request.getRemoteAddr(), endpoint.perIp(), now);
+            if (wait > 0) {
+                ipRejections.increment();
+                reject(request, response, wait);
+                return;
+            }
+        }
+
+        if (endpoint.perEmail() != null) {
+            byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                errorResponseService.reject(request, response, AuthRejection.BODY_TOO_LARGE);
+                return;
+            }
+
+            String email = extractEmail(body);
+            if (email != null) {
+                long wait = acquire(endpoint.path() + "|email|" + email, endpoint.perEmail(), now);
+                if (wait > 0) {
+                    emailRejections.increment();
+                    reject(request, response, wait);
+                    return;
+                }
+            }
+            request = new CachedBodyRequest(request, body);
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
+        return !enabled || findEndpoint(request) == null;
+    }
+
+    private RateLimitProperties.Endpoint findEndpoint(HttpServletRequest request) {
+        for (EndpointMatcher endpointMatcher : endpoints) {
+            if (endpointMatcher.matcher().matches(request)) {
+                return endpointMatcher.endpoint();
+            }
+        }
+        return null;
+    }
+
+    private long acquire(String key, RateLimitProperties.Limit limit, long now) {
+        return buckets.get(key, k -> new TokenBucket(limit, now)).tryAcquire(now);
+    }
+
+    private String extractEmail(byte[] body) {
+        try {
+            JsonNode email = objectMapper.readTree(body).get("email");
+            return email != null && email.isString() ? email.asString().trim().toLowerCase(Locale.ROOT) : null;
+        } catch (JacksonException e) {
+            // malformed bodies are rejected later by the controller
+            return null;
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        errorResponseService.reject(request, response, AuthRejection.RATE_LIMITED);
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String key) {
+        return Counter.builder("auth.rate_limit.rejected")
+                .description("Requests rejected by the auth endpoint rate limiter")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+
+    private record EndpointMatcher(RequestMatcher matcher, RateLimitProperties.Endpoint endpoint) {
+    }
+
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
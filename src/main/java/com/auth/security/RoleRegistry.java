@@ -0,0 +1,120 @@
+package com.auth.security;
+
+import com.auth.entity.Role;
+import com.auth.repository.RoleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory view of the role table. Roles are a small, rarely changing set,
+ * so they are read once and reloaded periodically instead of per request.
+ * <p>
+ * Role name lists and authority lists are interned: every user with the
+ * same roles shares one immutable list of names for the token claim and
+ * one list of {@link GrantedAuthority} objects.
+ */
+@Slf4j
+@Component
+public class RoleRegistry {
+
+    // guard the interning maps against unbounded role names and combinations
+    private static final int MAX_INTERNED_LISTS = 1024;
+    private static final int MAX_INTERNED_AUTHORITIES = 256;
+
+    private final RoleRepository roleRepository;
+    private volatile Map<String, Role> rolesByName = Map.of();
+    private final Map<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+    private final Map<List<String>, List<String>> roleNameLists = new ConcurrentHashMap<>();
+    private final Map<List<String>, List<GrantedAuthority>> authorityLists = new ConcurrentHashMap<>();
+
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${security.roles.refresh-interval:PT5M}", initialDelayString = "${security.roles.refresh-interval:PT5M}")
+    public void refresh() {
+        Map<String, Role> roles = roleRepository.findAll().stream()
+                .collect(Collectors.toUnmodifiableMap(Role::getName, Function.identity()));
+        if (!roles.keySet().equals(rolesByName.keySet())) {
+            log.info("Loaded {} roles", roles.size());
+        }
+        rolesByName = roles;
+    }
+
+    public Optional<Role> findByName(String name) {
+        return Optional.ofNullable(rolesByName.get(name));
+    }
+
+    public Collection<Role> getRoles() {
+        return rolesByName.values();
+    }
+
+    /**
+     * Names of the given roles in a stable order, as one shared immutable list.
+     */
+    public List<String> roleNames(Collection<Role> roles) {
+        if (roles == null || roles.isEmpty()) {
+            return List.of();
+        }
+        List<String> names = new ArrayList<>(roles.size());
+        for (Role role : roles) {
+            names.add(role.getName());
+        }
+        names.sort(null);
+        return intern(roleNameLists, names, List::copyOf);
+    }
+
+    public List<GrantedAuthority> authorities(Collection<Role> roles) {
+        return authoritiesForNames(roleNames(roles));
+    }
+
+    public List<GrantedAuthority> authoritiesForNames(List<String> roleNames) {
+        if (roleNames.isEmpty()) {
+            return List.of();
+        }
+        return intern(authorityLists, roleNames, names -> names.stream()
+                .map(this::authority)
+                .toList());
+    }
+
+    public GrantedAuthority authority(String roleName) {
+        GrantedAuthority authority = authorities.get(roleName);
+        if (authority != null) {
+            return authority;
+        }
+        if (authorities.size() >= MAX_INTERNED_AUTHORITIES) {
+            return new SimpleGrantedAuthority(roleName);
+        }
+        return authorities.computeIfAbsent(roleName, SimpleGrantedAuthority::new);
+    }
+
+    private static <T> List<T> intern(
+            Map<List<String>, List<T>> interned,
+            List<String> key,
+            Function<List<String>, List<T>> factory) {
+
+        List<T> value = interned.get(key);
+        if (value != null) {
+            return value;
+        }
+        if (interned.size() >= MAX_INTERNED_LISTS) {
+            return factory.apply(key);
+        }
+        return interned.computeIfAbsent(List.copyOf(key), factory);
+    }
+}
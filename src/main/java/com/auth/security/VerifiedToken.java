@@ -0,0 +1,28 @@
+package com.auth.security;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable view of a token whose signature and expiry have already been
+ * checked by {@link com.auth.service.JwtService#verify(String)}.
+ */
+public record VerifiedToken(
+        String type,
+        String jti,
+        UUID userId,
+        String subject,
+        List<String> roles,
+        Instant issuedAt,
+        Instant expiresAt
+) {
+
+    public boolean isAccessToken() {
+        return "access".equals(type);
+    }
+
+    public boolean isRefreshToken() {
+        return "refresh".equals(type);
+    }
+}
@@ -0,0 +1,80 @@
+package com.auth.security;
+
+import com.auth.service.JwtService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Optional cache of already verified access tokens, keyed by the signature
+ * part of the token. A hit still compares the full token, so a forged
+ * header or payload reusing a known signature is verified normally.
+ * Entries expire together with the token.
+ * <p>
+ * The cache only memoizes the signature check and is local to each node.
+ * Whether the token's user is still allowed in is decided per request by
+ * the user lookup or by {@link com.auth.service.UserRevocationService}.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtService jwtService;
+    private final Cache<String, CachedToken> cache;
+
+    public VerifiedTokenCache(
+            JwtService jwtService,
+            MeterRegistry meterRegistry,
+            @Value("${security.jwt.token-cache.enabled:false}") boolean enabled,
+            @Value("${security.jwt.token-cache.max-size:10000}") long maxSize) {
+
+        this.jwtService = jwtService;
+        if (enabled) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfter(Expiry.creating((String signature, CachedToken cachedToken) ->
+                            timeToExpiry(cachedToken.verifiedToken())))
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "verifiedTokens");
+        } else {
+            this.cache = null;
+        }
+    }
+
+    public VerifiedToken verify(String token) {
+        if (cache == null) {
+            return jwtService.verify(token);
+        }
+
+        String signature = signatureOf(token);
+        CachedToken cachedToken = cache.getIfPresent(signature);
+        if (cachedToken != null && cachedToken.token().equals(token)) {
+            return cachedToken.verifiedToken();
+        }
+
+        VerifiedToken verifiedToken = jwtService.verify(token);
+        if (verifiedToken.isAccessToken()) {
+            cache.put(signature, new CachedToken(token, verifiedToken));
+        }
+        return verifiedToken;
+    }
+
+    private static String signatureOf(String token) {
+        return token.substring(token.lastIndexOf('.') + 1);
+    }
+
+    private static Duration timeToExpiry(VerifiedToken verifiedToken) {
+        Duration ttl = Duration.between(Instant.now(), verifiedToken.expiresAt());
+        return ttl.isNegative() ? Duration.ZERO : ttl;
+    }
+
+    private record CachedToken(String token, VerifiedToken verifiedToken) {
+    }
+}
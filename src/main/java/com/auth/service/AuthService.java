@@ -5,8 +5,9 @@ import com.auth.dto.TokenResponse;
 import com.auth.dto.UserDto;
 import com.auth.entity.RefreshToken;
 import com.auth.entity.User;
-import com.auth.repository.RefreshTokenRepository;
-import com.auth.repository.UserRepository;
+import com.auth.repository.RefreshTokenStore;
+import com.auth.security.CustomUserDetails;
+import com.auth.security.VerifiedToken;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
@@ -26,12 +27,11 @@ public class AuthService {
     private final UserService userService;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
-    private final UserRepository userRepository;
     private final RefreshTokenService refreshTokenService;
     private final TokenResponseService tokenResponseService;
     private final CookieService cookieService;
     private final JwtService jwtService;
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenStore refreshTokenStore;
 
     public UserDto registerUser(UserDto userDto) {
         userDto.setPassword(passwordEncoder.encode(userDto.getPassword()));
@@ -39,10 +39,14 @@ public class AuthService {
     }
 
     public TokenResponse loginUser(LoginRequest loginRequest, HttpServletResponse response) {
-        authenticateUser(loginRequest);
+        Authentication authentication = authenticateUser(loginRequest);
 
-        User user = userRepository.findByEmail(loginRequest.getEmail())
-                .orElseThrow(() -> new BadCredentialsException("Invalid email or password"));
+        // the user was loaded with its roles to check the password, so it is not read again;
+        // hashing stays outside the transaction so it does not hold a connection
+        if (!(authentication.getPrincipal() instanceof CustomUserDetails userDetails)) {
+            throw new BadCredentialsException("Invalid email or password");
+        }
+        User user = userDetails.user();
         if (!user.isEnabled()) {
             throw new DisabledException("User is disabled");
         }
@@ -72,11 +76,11 @@ public class AuthService {
     public void logout(HttpServletRequest request, HttpServletResponse response) {
         cookieService.getRefreshTokenJwt(request).ifPresent(token -> {
             try {
-                if(jwtService.isRefreshToken(token)) {
-                    String jti = jwtService.getJti(token);
-                    refreshTokenRepository.findByJti(jti).ifPresent(refreshToken -> {
+                VerifiedToken verifiedToken = jwtService.verify(token);
+                if(verifiedToken.isRefreshToken()) {
+                    refreshTokenStore.findByJti(verifiedToken.jti()).ifPresent(refreshToken -> {
                         refreshToken.setRevoked(true);
-                        refreshTokenRepository.save(refreshToken);
+                        refreshTokenStore.save(refreshToken);
                     });
                 }
             } catch (Exception e) {
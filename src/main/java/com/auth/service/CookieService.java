@@ -54,7 +54,7 @@ public class CookieService {
             builder.domain(cookieDomain);
         }
         response.addHeader(HttpHeaders.SET_COOKIE, builder.build().toString());
-        log.info("Cookie attached!");
+        log.debug("Refresh token cookie attached");
     }
 
     public void clearRefreshCookie(HttpServletResponse response) {
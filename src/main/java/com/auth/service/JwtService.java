@@ -1,17 +1,18 @@
 package com.auth.service;
 
-import com.auth.entity.Role;
 import com.auth.entity.User;
+import com.auth.security.JwtKeyManager;
+import com.auth.security.RoleRegistry;
+import com.auth.security.VerifiedToken;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Date;
 import java.util.List;
@@ -22,72 +23,77 @@ import java.util.UUID;
 @Setter
 public class JwtService {
 
-    private final SecretKey secretKey;
+    private final JwtKeyManager jwtKeyManager;
+    private final RoleRegistry roleRegistry;
+    private final ObservationRegistry observationRegistry;
     private final long accessTtlSeconds;
     private final long refreshTtlSeconds;
     private final String issuer;
+    private final JwtParser jwtParser;
 
     public JwtService(
-            @Value("${security.jwt.secret}") String secretKey,
+            JwtKeyManager jwtKeyManager,
+            RoleRegistry roleRegistry,
+            ObservationRegistry observationRegistry,
             @Value("${security.jwt.access-ttl-seconds}") long accessTtlSeconds,
             @Value("${security.jwt.refresh-ttl-seconds}") long refreshTtlSeconds,
             @Value("${security.jwt.issuer}") String issuer) {
 
-        if (secretKey == null || secretKey.isBlank() || secretKey.length() < 64) {
-            throw new IllegalArgumentException("Invalid JWT Secret Key");
-        }
-
-        this.secretKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        this.jwtKeyManager = jwtKeyManager;
+        this.roleRegistry = roleRegistry;
+        this.observationRegistry = observationRegistry;
         this.accessTtlSeconds = accessTtlSeconds;
         this.refreshTtlSeconds = refreshTtlSeconds;
         this.issuer = issuer;
+        this.jwtParser = Jwts.parser().keyLocator(jwtKeyManager).build();
     }
 
     //generate access token
     public String generateAccessToken(User user) {
-
-        List<String> roles = user.getRoles() == null ? List.of() :
-                user.getRoles().stream().map(Role::getName).toList();
-        Instant now = Instant.now();
-        return Jwts.builder()
-                .id(UUID.randomUUID().toString())
-                .subject(user.getEmail())
-                .issuer(issuer)
-                .issuedAt(Date.from(now))
-                .expiration(Date.from(now.plusSeconds(accessTtlSeconds)))
-                .claim("userId", user.getId().toString())
-                .claim("roles", roles)
-                .claim("typ", "access")
-                .signWith(secretKey)
-                .compact();
+        return tokenObservation("auth.jwt.generate", "access").observe(() -> {
+            List<String> roles = roleRegistry.roleNames(user.getRoles());
+            Instant now = Instant.now();
+            return jwtKeyManager.sign(Jwts.builder()
+                    .id(UUID.randomUUID().toString())
+                    .subject(user.getEmail())
+                    .issuer(issuer)
+                    .issuedAt(Date.from(now))
+                    .expiration(Date.from(now.plusSeconds(accessTtlSeconds)))
+                    .claim("userId", user.getId().toString())
+                    .claim("roles", roles)
+                    .claim("typ", "access"))
+                    .compact();
+        });
     }
 
     //generate refresh token
     public String generateRefreshToken(User user, String jti) {
-
-        Instant now = Instant.now();
-        return Jwts.builder()
-                .id(jti)
-                .subject(user.getEmail())
-                .issuer(issuer)
-                .issuedAt(Date.from(now))
-                .expiration(Date.from(now.plusSeconds(refreshTtlSeconds)))
-                .claim("userId", user.getId().toString())
-                .claim("typ", "refresh")
-                .signWith(secretKey)
-                .compact();
+        return tokenObservation("auth.jwt.generate", "refresh").observe(() -> {
+            Instant now = Instant.now();
+            return jwtKeyManager.sign(Jwts.builder()
+                    .id(jti)
+                    .subject(user.getEmail())
+                    .issuer(issuer)
+                    .issuedAt(Date.from(now))
+                    .expiration(Date.from(now.plusSeconds(refreshTtlSeconds)))
+                    .claim("userId", user.getId().toString())
+                    .claim("typ", "refresh"))
+                    .compact();
+        });
     }
 
     // parse the token
     public Jws<Claims> parse(String token) {
+        return Observation.createNotStarted("auth.jwt.parse", observationRegistry)
+                .observe(() -> parseSignedClaims(token));
+    }
+
+    private Jws<Claims> parseSignedClaims(String token) {
         try {
-            return Jwts
-                    .parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token);
+            return jwtParser.parseSignedClaims(token);
         } catch (ExpiredJwtException e) {
-            throw new JwtException("Token has expired, " + e.getMessage());
+            // keeps the expired type so callers can tell it from an invalid token
+            throw new ExpiredJwtException(e.getHeader(), e.getClaims(), "Token has expired, " + e.getMessage(), e);
         } catch (UnsupportedJwtException e) {
             throw new JwtException("Unsupported JWT token, " + e.getMessage());
         } catch (MalformedJwtException e) {
@@ -99,32 +105,33 @@ public class JwtService {
         }
     }
 
-    public boolean isAccessToken(String token) {
+    // verify the token once and read all claims from the result
+    public VerifiedToken verify(String token) {
         Claims payload = parse(token).getPayload();
-        return "access".equals(payload.get("typ"));
-    }
 
-    public boolean isRefreshToken(String token) {
-        Claims payload = parse(token).getPayload();
-        return "refresh".equals(payload.get("typ"));
-    }
-
-    public UUID getUserId(String token) {
-        Claims payload = parse(token).getPayload();
-        String userId = (String) payload.get("userId");
+        String userId = payload.get("userId", String.class);
         if (userId == null) {
             throw new JwtException("User Id claim not found in token");
         }
-        return UUID.fromString(userId);
-    }
 
-    public String getJti(String token) {
-        return parse(token).getPayload().getId();
+        List<?> roles = payload.get("roles", List.class);
+        try {
+            return new VerifiedToken(
+                    payload.get("typ", String.class),
+                    payload.getId(),
+                    UUID.fromString(userId),
+                    payload.getSubject(),
+                    roles == null ? List.of() : roles.stream().map(Object::toString).toList(),
+                    payload.getIssuedAt().toInstant(),
+                    payload.getExpiration().toInstant()
+            );
+        } catch (IllegalArgumentException e) {
+            throw new JwtException("Invalid User Id claim, " + e.getMessage());
+        }
     }
 
-    public String getUsername(String token) {
-        Jws<Claims> parse = this.parse(token);
-        Claims payload = parse.getPayload();
-        return payload.getSubject();
+    private Observation tokenObservation(String name, String tokenType) {
+        return Observation.createNotStarted(name, observationRegistry)
+                .lowCardinalityKeyValue("type", tokenType);
     }
 }
@@ -0,0 +1,103 @@
+package com.auth.service;
+
+import com.auth.repository.RefreshTokenRepository;
+import com.auth.repository.RefreshTokenRepository.TokenKey;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Deletes refresh tokens that expired longer than the retention period ago.
+ * Rows are removed in small batches, walking the (expires_at, id) index with
+ * a keyset cursor and pausing between batches so the purge never holds long
+ * locks on the table used by every refresh.
+ * <p>
+ * The job is opt-in per node with {@code security.jwt.refresh-token-cleanup.enabled};
+ * in a cluster it should run on a single node.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "security.jwt.refresh-token-store", havingValue = "jpa", matchIfMissing = true)
+@ConditionalOnBooleanProperty("security.jwt.refresh-token-cleanup.enabled")
+public class RefreshTokenCleanupJob {
+
+    private static final UUID MIN_ID = new UUID(0, 0);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration retention;
+    private final int batchSize;
+    private final Duration pause;
+    private final Counter purgedCounter;
+    private final Timer purgeTimer;
+
+    public RefreshTokenCleanupJob(
+            RefreshTokenRepository refreshTokenRepository,
+            MeterRegistry meterRegistry,
+            @Value("${security.jwt.refresh-token-cleanup.retention:P7D}") Duration retention,
+            @Value("${security.jwt.refresh-token-cleanup.batch-size:1000}") int batchSize,
+            @Value("${security.jwt.refresh-token-cleanup.pause:PT0.2S}") Duration pause) {
+
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.pause = pause;
+        this.purgedCounter = Counter.builder("auth.refresh_tokens.purged")
+                .description("Expired refresh tokens deleted by the cleanup job")
+                .register(meterRegistry);
+        this.purgeTimer = Timer.builder("auth.refresh_tokens.purge")
+                .description("Duration of a refresh token cleanup run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${security.jwt.refresh-token-cleanup.cron:0 30 3 * * *}")
+    public void purgeExpiredTokens() {
+        purgeTimer.record(() -> {
+            long purged = purgeExpiredBefore(Instant.now().minus(retention));
+            log.info("Purged {} expired refresh tokens", purged);
+        });
+    }
+
+    private long purgeExpiredBefore(Instant cutoff) {
+        long purged = 0;
+        Instant afterExpiresAt = Instant.EPOCH;
+        UUID afterId = MIN_ID;
+
+        while (true) {
+            List<TokenKey> batch = refreshTokenRepository
+                    .findExpiredTokenKeys(cutoff, afterExpiresAt, afterId, Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                return purged;
+            }
+
+            refreshTokenRepository.deleteAllByIdInBatch(batch.stream().map(TokenKey::getId).toList());
+            purged += batch.size();
+            purgedCounter.increment(batch.size());
+
+            TokenKey last = batch.get(batch.size() - 1);
+            afterExpiresAt = last.getExpiresAt();
+            afterId = last.getId();
+
+            if (batch.size() < batchSize) {
+                return purged;
+            }
+            try {
+                Thread.sleep(pause.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return purged;
+            }
+        }
+    }
+}
@@ -3,18 +3,17 @@ package com.auth.service;
 import com.auth.dto.TokenResponse;
 import com.auth.entity.RefreshToken;
 import com.auth.entity.User;
-import com.auth.repository.RefreshTokenRepository;
+import com.auth.repository.RefreshTokenStore;
+import com.auth.security.VerifiedToken;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.util.Collections;
-import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 @RequiredArgsConstructor
@@ -22,7 +21,7 @@ import java.util.UUID;
 public class RefreshTokenService {
 
     private final JwtService jwtService;
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenStore refreshTokenStore;
     private final CookieService cookieService;
     private final TokenResponseService tokenResponseService;
 
@@ -37,18 +36,12 @@ public class RefreshTokenService {
                 .expiresAt(Instant.now().plusSeconds(jwtService.getRefreshTtlSeconds()))
                 .revoked(false)
                 .build();
-        return refreshTokenRepository.save(token);
+        return refreshTokenStore.save(token);
     }
 
+    // single UPDATE over the user's active tokens, independent of the token history size
     private void revokeAllUserTokens(User user) {
-        Optional<List<RefreshToken>> refreshTokenList = refreshTokenRepository.findAllByUser(user);
-        if(refreshTokenList.isPresent()) {
-            List<RefreshToken> refreshTokens = refreshTokenList.get();
-            refreshTokens.forEach(refreshToken -> {
-                refreshToken.setRevoked(true);
-            });
-            refreshTokenRepository.saveAll(refreshTokens);
-        }
+        refreshTokenStore.revokeAllActiveByUser(user, Instant.now());
     }
 
     @Transactional
@@ -62,9 +55,9 @@ public class RefreshTokenService {
 
         oldToken.setRevoked(true);
         oldToken.setReplacedByToken(newToken.getJti());
-        refreshTokenRepository.save(oldToken);
+        refreshTokenStore.save(oldToken);
 
-        return refreshTokenRepository.save(newToken);
+        return refreshTokenStore.save(newToken);
     }
 
     @Transactional
@@ -84,25 +77,27 @@ public class RefreshTokenService {
 
     public RefreshToken validateAndGetRefreshToken(String refreshTokenJwt) {
 
-        if (!jwtService.isRefreshToken(refreshTokenJwt)) {
+        VerifiedToken verifiedToken = jwtService.verify(refreshTokenJwt);
+        if (!verifiedToken.isRefreshToken()) {
             throw new BadCredentialsException("Invalid refresh token type");
         }
-        String jti = jwtService.getJti(refreshTokenJwt);
-        UUID userId = jwtService.getUserId(refreshTokenJwt);
 
-        RefreshToken storedToken = refreshTokenRepository.findByJti(jti)
+        RefreshToken storedToken = refreshTokenStore.findByJti(verifiedToken.jti())
                 .orElseThrow(() -> new BadCredentialsException("Refresh token not recognized"));
 
         if (storedToken.isRevoked()) {
-//            refreshTokenRepository.revokeAllByUser(storedToken.getUser());
+//            refreshTokenStore.revokeAllByUser(storedToken.getUser());
             throw new BadCredentialsException("Refresh token reused");
         }
         if (storedToken.getExpiresAt().isBefore(Instant.now())) {
             throw new BadCredentialsException("Refresh token expired");
         }
-        if (!storedToken.getUser().getId().equals(userId)) {
+        if (!storedToken.getUser().getId().equals(verifiedToken.userId())) {
             throw new BadCredentialsException("Token does not belong to user");
         }
+        if (!storedToken.getUser().isEnabled()) {
+            throw new DisabledException("User is disabled");
+        }
         return storedToken;
     }
 }
@@ -0,0 +1,47 @@
+package com.auth.service;
+
+import com.auth.config.CacheConfig;
+import com.auth.repository.UserRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Evicts users changed on other instances from the local
+ * {@link CacheConfig#USERS_BY_EMAIL} cache. Every poll reads the emails of
+ * users updated since the previous poll, so an update made on one node is
+ * seen by the others within one poll interval instead of one cache TTL.
+ * <p>
+ * Deleted users leave no row to find, so other nodes drop them only when
+ * the cache entry expires; access tokens of deleted users are rejected
+ * through {@link UserRevocationService} in stateless mode.
+ */
+@Component
+public class UserCacheInvalidator {
+
+    // covers clock skew between nodes and transactions that commit after they set updated_at
+    private static final Duration OVERLAP = Duration.ofMinutes(1);
+
+    private final UserRepository userRepository;
+    private final Cache usersByEmail;
+    private Instant lastPoll = Instant.now();
+
+    public UserCacheInvalidator(UserRepository userRepository, CacheManager cacheManager) {
+        this.userRepository = userRepository;
+        this.usersByEmail = cacheManager.getCache(CacheConfig.USERS_BY_EMAIL);
+    }
+
+    @Scheduled(
+            fixedDelayString = "${security.user-cache.invalidation-poll-interval:PT5S}",
+            initialDelayString = "${security.user-cache.invalidation-poll-interval:PT5S}")
+    public void evictUpdatedUsers() {
+        Instant pollStart = Instant.now();
+        userRepository.findEmailsUpdatedSince(lastPoll.minus(OVERLAP))
+                .forEach(email -> usersByEmail.evict(CacheConfig.emailKey(email)));
+        lastPoll = pollStart;
+    }
+}
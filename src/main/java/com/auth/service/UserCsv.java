@@ -0,0 +1,140 @@
+package com.auth.service;
+
+import com.auth.dto.RoleDto;
+import com.auth.dto.UserDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * CSV layout shared by the user import and export. Fields follow RFC 4180
+ * quoting but may not span lines; roles are role names separated by ';'.
+ * Columns are matched by header name, so an export can be imported back
+ * (id, provider and created_at are ignored on import).
+ */
+public final class UserCsv {
+
+    public static final List<String> EXPORT_COLUMNS =
+            List.of("id", "name", "email", "image", "enabled", "provider", "created_at", "roles");
+
+    private static final String ROLE_SEPARATOR = ";";
+
+    private UserCsv() {
+    }
+
+    public static String header() {
+        return String.join(",", EXPORT_COLUMNS);
+    }
+
+    public static String format(UserDto user) {
+        String roles = user.getRoles() == null ? "" : user.getRoles().stream()
+                .map(RoleDto::getName)
+                .sorted()
+                .collect(Collectors.joining(ROLE_SEPARATOR));
+
+        return String.join(",",
+                quote(user.getId()),
+                quote(user.getName()),
+                quote(user.getEmail()),
+                quote(user.getImage()),
+                quote(user.getEnabled()),
+                quote(user.getProvider()),
+                quote(user.getCreated_at()),
+                quote(roles));
+    }
+
+    /**
+     * Returns a parser for the data lines following the given header line.
+     */
+    public static Function<String, UserDto> parser(String headerLine) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> header = split(headerLine);
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("email")) {
+            throw new IllegalArgumentException("CSV header has no email column");
+        }
+
+        return line -> {
+            List<String> fields = split(line);
+            Function<String, String> field = name -> {
+                Integer index = columns.get(name);
+                if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+                    return null;
+                }
+                return fields.get(index);
+            };
+
+            String enabled = field.apply("enabled");
+            String roles = field.apply("roles");
+            Set<RoleDto> roleDtos = new HashSet<>();
+            if (roles != null) {
+                Arrays.stream(roles.split(ROLE_SEPARATOR))
+                        .map(String::trim)
+                        .filter(name -> !name.isEmpty())
+                        .forEach(name -> roleDtos.add(new RoleDto(null, name)));
+            }
+
+            return UserDto.builder()
+                    .name(field.apply("name"))
+                    .email(field.apply("email"))
+                    .password(field.apply("password"))
+                    .image(field.apply("image"))
+                    .enabled(enabled == null || Boolean.parseBoolean(enabled))
+                    .roles(roleDtos)
+                    .build();
+        };
+    }
+
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String quote(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"").replace("\r", " ").replace("\n", " ") + '"';
+    }
+}
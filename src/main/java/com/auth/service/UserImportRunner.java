@@ -0,0 +1,68 @@
+package com.auth.service;
+
+import com.auth.dto.UserImportError;
+import com.auth.dto.UserImportResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Offline loader: imports {@code security.user-import.file} at startup and
+ * then stops the application, e.g.
+ * <pre>
+ * java -jar auth.jar --security.user-import.file=users.csv --spring.main.web-application-type=none
+ * </pre>
+ * Files ending in {@code .csv} are read as CSV, anything else as NDJSON.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "security.user-import.file")
+public class UserImportRunner implements ApplicationRunner {
+
+    private final UserImportService userImportService;
+    private final ApplicationContext applicationContext;
+    private final Path file;
+    private final boolean exitAfterImport;
+
+    public UserImportRunner(
+            UserImportService userImportService,
+            ApplicationContext applicationContext,
+            @Value("${security.user-import.file}") Path file,
+            @Value("${security.user-import.exit-after-import:true}") boolean exitAfterImport) {
+
+        this.userImportService = userImportService;
+        this.applicationContext = applicationContext;
+        this.file = file;
+        this.exitAfterImport = exitAfterImport;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        UserImportService.Format format = file.getFileName().toString().endsWith(".csv")
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+
+        UserImportResult result;
+        try (InputStream input = Files.newInputStream(file)) {
+            result = userImportService.importUsers(input, format);
+        }
+        for (UserImportError error : result.getErrors()) {
+            log.warn("Line {} ({}): {}", error.getLine(), error.getEmail(), error.getMessage());
+        }
+        log.info("Import of {} finished: {} imported, {} rejected", file, result.getImported(), result.getFailed());
+
+        if (exitAfterImport) {
+            int exitCode = result.getFailed() == 0 ? 0 : 1;
+            System.exit(SpringApplication.exit(applicationContext, () -> exitCode));
+        }
+    }
+}
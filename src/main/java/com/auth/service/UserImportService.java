@@ -0,0 +1,303 @@
+package com.auth.service;
+
+import com.auth.config.CacheConfig;
+import com.auth.config.PasswordConfig;
+import com.auth.dto.RoleDto;
+import com.auth.dto.UserDto;
+import com.auth.dto.UserImportError;
+import com.auth.dto.UserImportResult;
+import com.auth.entity.Provider;
+import com.auth.entity.Role;
+import com.auth.entity.User;
+import com.auth.repository.UserRepository;
+import com.auth.security.BoundedPasswordEncoder;
+import com.auth.security.RoleRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Imports users in bulk from CSV or NDJSON. Input is read as a stream and
+ * processed in batches: records are validated, passwords are hashed in
+ * parallel, and each batch is inserted in one transaction using JDBC
+ * batching. Invalid records are reported by line and do not stop the
+ * import; a batch the database rejects is retried record by record so only
+ * the offending records are reported.
+ * <p>
+ * Hashing runs on a pool of its own, by default a quarter of the CPUs, so an
+ * import running next to live traffic leaves most cores to the bounded
+ * encoder that serves logins.
+ * <p>
+ * Passwords that already carry a supported {@code {id}} prefix are stored
+ * as they are, which is the fast path for migrating existing users.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final Pattern ENCODED_PASSWORD =
+            Pattern.compile("^\\{(" + String.join("|", PasswordConfig.ENCODING_IDS) + ")}.+");
+
+    private final UserRepository userRepository;
+    private final RoleRegistry roleRegistry;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final Cache usersByEmail;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final ForkJoinPool hashingPool;
+
+    public UserImportService(
+            UserRepository userRepository,
+            RoleRegistry roleRegistry,
+            BoundedPasswordEncoder passwordEncoder,
+            Validator validator,
+            PlatformTransactionManager transactionManager,
+            EntityManager entityManager,
+            CacheManager cacheManager,
+            ObjectMapper objectMapper,
+            @Value("${security.user-import.batch-size:500}") int batchSize,
+            @Value("${security.user-import.hashing-parallelism:#{T(java.lang.Math).max(1, T(java.lang.Runtime).getRuntime().availableProcessors() / 4)}}") int hashingParallelism) {
+
+        this.userRepository = userRepository;
+        this.roleRegistry = roleRegistry;
+        // imports hash on their own pool so they do not take login capacity from the bounded encoder
+        this.passwordEncoder = passwordEncoder.getDelegate();
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.usersByEmail = cacheManager.getCache(CacheConfig.USERS_BY_EMAIL);
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.hashingPool = new ForkJoinPool(hashingParallelism);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
+    public UserImportResult importUsers(InputStream input, Format format) throws IOException {
+        // the offline runner starts before ApplicationReadyEvent has loaded the registry
+        roleRegistry.refresh();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        ImportProgress progress = new ImportProgress();
+
+        long lineNumber = 0;
+        Function<String, UserDto> parser;
+        if (format == Format.CSV) {
+            String header = reader.readLine();
+            if (header == null) {
+                return progress.toResult();
+            }
+            lineNumber++;
+            parser = UserCsv.parser(header);
+        } else {
+            parser = line -> objectMapper.readValue(line, UserDto.class);
+        }
+
+        List<ImportRecord> batch = new ArrayList<>(batchSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                batch.add(new ImportRecord(lineNumber, parser.apply(line)));
+            } catch (RuntimeException e) {
+                progress.fail(lineNumber, null, "Unreadable record: " + e.getMessage());
+            }
+
+            if (batch.size() == batchSize) {
+                importBatch(batch, progress);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            importBatch(batch, progress);
+        }
+
+        UserImportResult result = progress.toResult();
+        log.info("Imported {} users, {} records rejected", result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private void importBatch(List<ImportRecord> records, ImportProgress progress) {
+        // emails compare case-insensitively, like the database does
+        Set<String> existingEmails = userRepository.findExistingEmails(records.stream()
+                        .map(record -> record.user().getEmail())
+                        .filter(Objects::nonNull)
+                        .toList())
+                .stream()
+                .map(UserImportService::normalizeEmail)
+                .collect(Collectors.toSet());
+
+        Set<String> batchEmails = new HashSet<>();
+        List<ValidRecord> validRecords = new ArrayList<>(records.size());
+        for (ImportRecord record : records) {
+            UserDto user = record.user();
+            String error = validate(user);
+            if (error == null && existingEmails.contains(normalizeEmail(user.getEmail()))) {
+                error = "Email is already registered";
+            }
+            if (error == null && !batchEmails.add(normalizeEmail(user.getEmail()))) {
+                error = "Email appears more than once in the import";
+            }
+
+            List<Role> roles = new ArrayList<>();
+            if (error == null && user.getRoles() != null) {
+                for (RoleDto roleDto : user.getRoles()) {
+                    Role role = roleRegistry.findByName(roleDto.getName()).orElse(null);
+                    if (role == null) {
+                        error = "Unknown role " + roleDto.getName();
+                        break;
+                    }
+                    roles.add(role);
+                }
+            }
+
+            if (error != null) {
+                progress.fail(record.line(), user.getEmail(), error);
+            } else {
+                validRecords.add(new ValidRecord(record, roles));
+            }
+        }
+        if (validRecords.isEmpty()) {
+            return;
+        }
+
+        // hashing dominates the cost of an import, the rest of the batch is cheap
+        List<User> users = hashingPool.submit(() -> validRecords.parallelStream()
+                        .map(this::toUser)
+                        .toList())
+                .join();
+
+        try {
+            insert(users);
+            progress.imported(users.size());
+        } catch (DataAccessException e) {
+            // one bad record rolls back the whole batch, so each record is retried alone to find it
+            log.debug("Import batch rejected, retrying record by record", e);
+            for (int i = 0; i < users.size(); i++) {
+                User user = users.get(i);
+                ImportRecord record = validRecords.get(i).record();
+                user.setId(null);
+                try {
+                    insert(List.of(user));
+                    progress.imported(1);
+                } catch (DataAccessException recordException) {
+                    progress.fail(record.line(), user.getEmail(), "Rejected by the database: "
+                            + NestedExceptionUtils.getMostSpecificCause(recordException).getMessage());
+                }
+            }
+        }
+    }
+
+    private void insert(List<User> users) {
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.saveAll(users);
+            entityManager.flush();
+            entityManager.clear();
+            // saveAll bypasses the evicting save, and absent emails may be cached as missing
+            users.forEach(user -> usersByEmail.evict(CacheConfig.emailKey(user.getEmail())));
+        });
+    }
+
+    private static String normalizeEmail(String email) {
+        return email == null ? null : email.toLowerCase(Locale.ROOT);
+    }
+
+    private String validate(UserDto user) {
+        Set<ConstraintViolation<UserDto>> violations = validator.validate(user);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private User toUser(ValidRecord valid) {
+        UserDto userDto = valid.record().user();
+        User user = new User(
+                userDto.getName(),
+                userDto.getEmail(),
+                userDto.getImage(),
+                userDto.getEnabled() == null || userDto.getEnabled(),
+                Provider.LOCAL,
+                null);
+
+        String password = userDto.getPassword();
+        if (password != null) {
+            user.setPassword(ENCODED_PASSWORD.matcher(password).matches() ? password : passwordEncoder.encode(password));
+        }
+        user.setRoles(new HashSet<>(valid.roles()));
+        return user;
+    }
+
+    private record ImportRecord(long line, UserDto user) {
+    }
+
+    private record ValidRecord(ImportRecord record, List<Role> roles) {
+    }
+
+    private static final class ImportProgress {
+
+        private long imported;
+        private long failed;
+        private final List<UserImportError> errors = new ArrayList<>();
+
+        void imported(int count) {
+            imported += count;
+        }
+
+        void fail(long line, String email, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new UserImportError(line, email, message));
+            }
+        }
+
+        UserImportResult toResult() {
+            return new UserImportResult(imported, failed, List.copyOf(errors), failed > errors.size());
+        }
+    }
+}
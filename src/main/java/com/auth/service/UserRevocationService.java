@@ -0,0 +1,84 @@
+package com.auth.service;
+
+import com.auth.entity.UserRevocation;
+import com.auth.repository.UserRevocationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps track of users whose access tokens must no longer be accepted, e.g.
+ * after they have been disabled or deleted. Entries only need to outlive the
+ * access tokens issued before the revocation, so they are dropped once the
+ * access token TTL has passed.
+ * <p>
+ * Checks are answered from memory. Revocations are also written to the
+ * user_revocation table, which every instance polls every
+ * {@code security.jwt.revocation-poll-interval}, so a user disabled on one
+ * node is rejected by the others after at most one poll interval.
+ */
+@Slf4j
+@Service
+public class UserRevocationService {
+
+    private static final Duration UNCOMMITTED_GRACE = Duration.ofMinutes(1);
+
+    private final UserRevocationRepository userRevocationRepository;
+    private final Map<UUID, Instant> revokedUsers = new ConcurrentHashMap<>();
+    private final long accessTtlSeconds;
+
+    public UserRevocationService(
+            UserRevocationRepository userRevocationRepository,
+            @Value("${security.jwt.access-ttl-seconds}") long accessTtlSeconds) {
+
+        this.userRevocationRepository = userRevocationRepository;
+        this.accessTtlSeconds = accessTtlSeconds;
+    }
+
+    public void revoke(UUID userId) {
+        Instant now = Instant.now();
+        userRevocationRepository.save(new UserRevocation(userId, now));
+        revokedUsers.put(userId, now);
+    }
+
+    public void restore(UUID userId) {
+        userRevocationRepository.deleteById(userId);
+        revokedUsers.remove(userId);
+    }
+
+    public boolean isRevoked(UUID userId, Instant issuedAt) {
+        Instant revokedAt = revokedUsers.get(userId);
+        return revokedAt != null && !issuedAt.isAfter(revokedAt);
+    }
+
+    // picks up revocations and restores made on other instances
+    @Scheduled(fixedDelayString = "${security.jwt.revocation-poll-interval:PT5S}")
+    public void poll() {
+        Instant pollStart = Instant.now();
+        Map<UUID, Instant> shared = userRevocationRepository
+                .findAllByRevokedAtAfter(pollStart.minusSeconds(accessTtlSeconds)).stream()
+                .collect(Collectors.toMap(UserRevocation::getUserId, UserRevocation::getRevokedAt));
+
+        revokedUsers.putAll(shared);
+        // unshared entries were restored or have expired, unless their transaction has not committed yet
+        Instant settled = pollStart.minus(UNCOMMITTED_GRACE);
+        revokedUsers.entrySet().removeIf(entry ->
+                !shared.containsKey(entry.getKey()) && entry.getValue().isBefore(settled));
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.revocation-cleanup-interval:PT10M}")
+    public void removeExpiredRevocations() {
+        int removed = userRevocationRepository.deleteAllRevokedBefore(Instant.now().minusSeconds(accessTtlSeconds));
+        if (removed > 0) {
+            log.debug("Removed {} expired user revocations", removed);
+        }
+    }
+}
@@ -1,25 +1,50 @@
 package com.auth.service;
 
+import com.auth.dto.RoleDto;
 import com.auth.dto.UserDto;
+import com.auth.dto.UserPage;
 import com.auth.entity.Provider;
 import com.auth.entity.User;
+import com.auth.entity.UserIdentity;
 import com.auth.exceptions.ResourceNotFoundException;
 import com.auth.mapper.UserMapper;
+import com.auth.repository.UserIdentityRepository;
 import com.auth.repository.UserRepository;
-import jakarta.transaction.Transactional;
+import com.auth.repository.UserRepository.UserRole;
+import com.auth.repository.UserRepository.UserSummary;
+import com.auth.security.OAuth2UserInfo;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final UserRepository userRepository;
+    private final UserIdentityRepository userIdentityRepository;
     private final UserMapper userMapper;
+    private final UserRevocationService userRevocationService;
+    private final EntityManager entityManager;
 
     @Transactional
     public UserDto createUser(UserDto userDto) {
@@ -32,26 +57,98 @@ public class UserService {
         return userMapper.mapToUserDto(savedUser);
     }
 
-    public Iterable<UserDto> getAllUsers() {
-        return userRepository
-                .findAll()
-                .stream()
-                .map(userMapper::mapToUserDto)
-                .toList();
+    // not transactional: a failed insert must not mark the lookup after it for rollback
+    public User findOrCreateOAuth2User(OAuth2UserInfo userInfo) {
+        Optional<User> linkedUser = userRepository.findByProviderAndProviderId(userInfo.provider(), userInfo.providerId())
+                .or(() -> userIdentityRepository.findUserByProviderAndProviderId(userInfo.provider(), userInfo.providerId()));
+        if (linkedUser.isPresent()) {
+            return linkedUser.get();
+        }
+
+        // the email links the login to an account and is the username of a new one
+        if (userInfo.email() == null) {
+            throw new OAuth2AuthenticationException(
+                    new OAuth2Error("missing_email", "The identity provider did not share an email", null));
+        }
+        Optional<User> userWithEmail = userRepository.findByEmail(userInfo.email());
+        if (userWithEmail.isPresent()) {
+            // anyone can claim an unverified email, so it must not grant access to the account
+            if (!userInfo.emailVerified()) {
+                throw new OAuth2AuthenticationException(
+                        new OAuth2Error("unverified_email", "The identity provider did not verify the email", null));
+            }
+            User user = userWithEmail.get();
+            linkProviderIdentity(user, userInfo);
+            return user;
+        }
+
+        User user = new User(userInfo.name(), userInfo.email(), userInfo.picture(), true,
+                userInfo.provider(), userInfo.providerId());
+        try {
+            User savedUser = userRepository.save(user);
+            log.info("User {} created using {}", savedUser.getId(), userInfo.provider());
+            return savedUser;
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent first login of the same account inserted it first
+            return userRepository
+                    .findByProviderAndProviderId(userInfo.provider(), userInfo.providerId())
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    // later logins then resolve the account through the identity lookup; the account keeps its own provider
+    private void linkProviderIdentity(User user, OAuth2UserInfo userInfo) {
+        try {
+            userIdentityRepository.save(UserIdentity.builder()
+                    .user(entityManager.getReference(User.class, user.getId()))
+                    .provider(userInfo.provider())
+                    .providerId(userInfo.providerId())
+                    .build());
+            log.info("User {} linked to {}", user.getId(), userInfo.provider());
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent login linked the identity first; the email still resolves the account
+            log.debug("Provider identity of user {} was linked concurrently", user.getId());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public UserPage getUsers(UUID cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        // one extra row tells whether another page exists
+        Limit limit = Limit.of(pageSize + 1);
+        List<UserSummary> users = cursor == null
+                ? userRepository.findSummaries(limit)
+                : userRepository.findSummariesAfter(cursor, limit);
+
+        List<UserDto> page = toUserDtos(users.size() > pageSize ? users.subList(0, pageSize) : users);
+        UUID nextCursor = users.size() > pageSize ? page.get(page.size() - 1).getId() : null;
+        return new UserPage(page, nextCursor);
     }
 
+    // rows are detached once handed over so the persistence context does not grow with the table
+    @Transactional(readOnly = true)
+    public void exportUsers(Consumer<UserDto> consumer) {
+        try (Stream<User> users = userRepository.streamAllOrderedById()) {
+            users.forEach(user -> {
+                consumer.accept(userMapper.mapToUserDto(user));
+                entityManager.detach(user);
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
     public UserDto getUserByEmail(String email) {
-        User user = userRepository.findByEmail(email)
+        UserSummary user = userRepository.findSummaryByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with given id."));
-        return userMapper.mapToUserDto(user);
+        return toUserDtos(List.of(user)).get(0);
     }
 
-    ;
-
+    @Transactional(readOnly = true)
     public UserDto getUserById(UUID id) {
-        User user = userRepository.findById(id)
+        UserSummary user = userRepository.findSummaryById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with given id."));
-        return userMapper.mapToUserDto(user);
+        return toUserDtos(List.of(user)).get(0);
     }
 
     public UserDto updateUser(UserDto userDto, UUID userId) {
@@ -67,6 +164,12 @@ public class UserService {
         if (userDto.getPassword() != null) existingUser.setPassword(userDto.getPassword());
         existingUser.setEnabled(userDto.getEnabled());
         User updatedUser = userRepository.save(existingUser);
+
+        if (updatedUser.isEnabled()) {
+            userRevocationService.restore(userId);
+        } else {
+            userRevocationService.revoke(userId);
+        }
         return userMapper.mapToUserDto(updatedUser);
     }
 
@@ -75,5 +178,28 @@ public class UserService {
         User user = userRepository.findById(userID)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with given id."));
         userRepository.delete(user);
+        userRevocationService.revoke(userID);
+    }
+
+    // roles of all the given users are read with a single query
+    private List<UserDto> toUserDtos(List<UserSummary> users) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+
+        List<UUID> userIds = users.stream().map(UserSummary::getId).toList();
+        Map<UUID, Set<RoleDto>> rolesByUser = new HashMap<>();
+        for (UserRole role : userRepository.findRolesByUserIds(userIds)) {
+            rolesByUser.computeIfAbsent(role.getUserId(), id -> new HashSet<>())
+                    .add(new RoleDto(role.getRoleId(), role.getRoleName()));
+        }
+
+        return users.stream()
+                .map(user -> {
+                    UserDto userDto = userMapper.mapToUserDto(user);
+                    userDto.setRoles(rolesByUser.getOrDefault(user.getId(), new HashSet<>()));
+                    return userDto;
+                })
+                .toList();
     }
 }
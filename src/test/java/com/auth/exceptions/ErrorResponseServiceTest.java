@@ -0,0 +1,85 @@
+package com.auth.exceptions;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static java.time.temporal.ChronoUnit.MINUTES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ErrorResponseServiceTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ErrorResponseService errorResponseService = new ErrorResponseService(meterRegistry);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @EnumSource(AuthRejection.class)
+    void writesRejectionTemplate(AuthRejection rejection) throws Exception {
+        MockHttpServletResponse response = reject("/user/42", rejection);
+
+        assertThat(response.getStatus()).isEqualTo(rejection.getStatus().value());
+        assertThat(response.getContentType()).isEqualTo("application/json;charset=UTF-8");
+        assertThat(response.getContentLength()).isEqualTo(response.getContentAsByteArray().length);
+
+        JsonNode body = objectMapper.readTree(response.getContentAsByteArray());
+        assertThat(body.propertyNames()).containsExactly("timestamp", "status", "error", "message", "path");
+        assertThat(body.get("status").asInt()).isEqualTo(rejection.getStatus().value());
+        assertThat(body.get("error").asString()).isEqualTo(rejection.getStatus().getReasonPhrase());
+        assertThat(body.get("message").asString()).isEqualTo(rejection.getMessage());
+        assertThat(body.get("path").asString()).isEqualTo("/user/42");
+        assertThat(LocalDateTime.parse(body.get("timestamp").asString())).isCloseTo(LocalDateTime.now(), within(1, MINUTES));
+    }
+
+    @ParameterizedTest
+    @EnumSource(AuthRejection.class)
+    void countsRejectionsByReason(AuthRejection rejection) throws Exception {
+        reject("/", rejection);
+        reject("/", rejection);
+
+        assertThat(meterRegistry.get("auth.rejections").tag("reason", rejection.getReason()).counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void escapesPath() throws Exception {
+        String path = "/user/\"quoted\"\\x/ü\u0001";
+
+        MockHttpServletResponse response = reject(path, AuthRejection.TOKEN_INVALID);
+
+        JsonNode body = objectMapper.readTree(response.getContentAsByteArray());
+        assertThat(body.get("path").asString()).isEqualTo(path);
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).contains("\\\"quoted\\\"", "\\u0001");
+    }
+
+    @Test
+    void matchesSerializedErrorResponse() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        errorResponseService.reject(request, response, AuthRejection.ACCESS_DENIED);
+
+        JsonNode written = objectMapper.readTree(response.getContentAsByteArray());
+        JsonNode serialized = objectMapper.readTree(objectMapper.writeValueAsString(errorResponseService.buildErrorResponse(
+                AuthRejection.ACCESS_DENIED.getStatus(), AuthRejection.ACCESS_DENIED.getMessage(), request)));
+
+        for (String field : new String[]{"status", "error", "message", "path"}) {
+            assertThat(written.get(field)).isEqualTo(serialized.get(field));
+        }
+    }
+
+    private MockHttpServletResponse reject(String path, AuthRejection rejection) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        errorResponseService.reject(new MockHttpServletRequest("GET", path), response, rejection);
+        return response;
+    }
+}
@@ -0,0 +1,139 @@
+package com.auth.repository;
+
+import com.auth.entity.RefreshToken;
+import com.auth.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InMemoryRefreshTokenStoreTest {
+
+    private static final String EMAIL = "user@example.com";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final User user = new User();
+
+    @TempDir
+    Path dir;
+
+    private Path journal;
+
+    @BeforeEach
+    void setUp() {
+        user.setId(UUID.randomUUID());
+        user.setEmail(EMAIL);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        when(userRepository.findEmailById(user.getId())).thenReturn(Optional.of(EMAIL));
+        journal = dir.resolve("refresh-tokens.journal");
+    }
+
+    @Test
+    void replaysRevokeAfterSave() throws Exception {
+        InMemoryRefreshTokenStore store = journaledStore();
+        store.save(token("a"));
+        store.save(token("b"));
+        assertThat(store.revokeAllActiveByUser(user, Instant.now())).isEqualTo(2);
+        store.close();
+
+        InMemoryRefreshTokenStore recovered = journaledStore();
+
+        assertThat(recovered.findByJti("a")).get().extracting(RefreshToken::isRevoked).isEqualTo(true);
+        assertThat(recovered.findByJti("b")).get().extracting(RefreshToken::isRevoked).isEqualTo(true);
+        assertThat(recovered.revokeAllActiveByUser(user, Instant.now())).isZero();
+    }
+
+    @Test
+    void recoversWhenCompactionCrashedBeforeReplacingTheJournal() throws Exception {
+        InMemoryRefreshTokenStore store = journaledStore();
+        store.save(token("a"));
+        store.close();
+        // a crash mid-compaction leaves a partial snapshot next to the intact journal
+        Path snapshot = dir.resolve("refresh-tokens.journal.snapshot");
+        Files.writeString(snapshot, "partial\t");
+
+        InMemoryRefreshTokenStore recovered = journaledStore();
+
+        assertThat(recovered.findByJti("a")).get().extracting(RefreshToken::getUser).isSameAs(user);
+        assertThat(snapshot).doesNotExist();
+    }
+
+    @Test
+    void skipsTornLastRecord() throws Exception {
+        InMemoryRefreshTokenStore store = journaledStore();
+        store.save(token("a"));
+        store.save(token("b"));
+        store.close();
+        byte[] records = Files.readAllBytes(journal);
+        Files.write(journal, Arrays.copyOf(records, records.length - 6));
+
+        InMemoryRefreshTokenStore recovered = journaledStore();
+
+        assertThat(recovered.findByJti("a")).isPresent();
+        assertThat(recovered.findByJti("b")).isEmpty();
+    }
+
+    @Test
+    void journalHoldsNoEmailsAndSurvivesSeparatorsInFields() throws Exception {
+        InMemoryRefreshTokenStore store = journaledStore();
+        RefreshToken token = token("a\tb\nc");
+        token.setReplacedByToken("next\tjti");
+        store.save(token);
+        store.close();
+
+        assertThat(Files.readString(journal, StandardCharsets.UTF_8)).doesNotContain(EMAIL).hasLineCount(1);
+        assertThat(journaledStore().findByJti("a\tb\nc")).get()
+                .extracting(RefreshToken::getReplacedByToken).isEqualTo("next\tjti");
+    }
+
+    @Test
+    void revokesOnlyActiveTokensWithoutJournal() {
+        InMemoryRefreshTokenStore store = new InMemoryRefreshTokenStore(userRepository, "");
+        store.save(token("active"));
+        RefreshToken expired = token("expired");
+        expired.setExpiresAt(Instant.now().minusSeconds(1));
+        store.save(expired);
+
+        assertThat(store.revokeAllActiveByUser(user, Instant.now())).isEqualTo(1);
+        assertThat(store.findByJti("active")).get().extracting(RefreshToken::isRevoked).isEqualTo(true);
+        assertThat(store.findByJti("expired")).get().extracting(RefreshToken::isRevoked).isEqualTo(false);
+    }
+
+    @Test
+    void generatesTimeOrderedVersion7Ids() throws Exception {
+        UUID first = InMemoryRefreshTokenStore.timeOrderedId();
+        Thread.sleep(2);
+        UUID second = InMemoryRefreshTokenStore.timeOrderedId();
+
+        assertThat(first.version()).isEqualTo(7);
+        assertThat(first.variant()).isEqualTo(2);
+        assertThat(first.getMostSignificantBits() >>> 16).isLessThan(second.getMostSignificantBits() >>> 16);
+        assertThat(first.getMostSignificantBits() >>> 16)
+                .isCloseTo(System.currentTimeMillis(), within(1000L));
+    }
+
+    private InMemoryRefreshTokenStore journaledStore() {
+        return new InMemoryRefreshTokenStore(userRepository, journal.toString());
+    }
+
+    private RefreshToken token(String jti) {
+        return RefreshToken.builder()
+                .jti(jti)
+                .user(user)
+                .expiresAt(Instant.now().plus(Duration.ofDays(1)))
+                .build();
+    }
+}
@@ -0,0 +1,149 @@
+package com.auth.security;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.encrypt.Encryptors;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CookieAuthorizationRequestRepositoryTest {
+
+    private static final String SECRET = "s".repeat(64);
+
+    private final CookieAuthorizationRequestRepository repository =
+            new CookieAuthorizationRequestRepository(SECRET, Duration.ofMinutes(3), true);
+
+    @Test
+    void roundTripsAuthorizationRequest() {
+        OAuth2AuthorizationRequest authorizationRequest = authorizationRequest();
+
+        Cookie cookie = save(repository, authorizationRequest);
+        OAuth2AuthorizationRequest loaded = repository.loadAuthorizationRequest(requestWith(cookie.getValue()));
+
+        assertThat(loaded).isNotNull();
+        assertThat(loaded.getAuthorizationUri()).isEqualTo(authorizationRequest.getAuthorizationUri());
+        assertThat(loaded.getClientId()).isEqualTo(authorizationRequest.getClientId());
+        assertThat(loaded.getRedirectUri()).isEqualTo(authorizationRequest.getRedirectUri());
+        assertThat(loaded.getScopes()).isEqualTo(authorizationRequest.getScopes());
+        assertThat(loaded.getState()).isEqualTo(authorizationRequest.getState());
+        assertThat(loaded.<String>getAttribute(OAuth2ParameterNames.REGISTRATION_ID)).isEqualTo("google");
+    }
+
+    @Test
+    void writesHardenedCookie() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        repository.saveAuthorizationRequest(authorizationRequest(), new MockHttpServletRequest(), response);
+
+        assertThat(response.getHeader(HttpHeaders.SET_COOKIE))
+                .startsWith(CookieAuthorizationRequestRepository.COOKIE_NAME + "=")
+                .contains("Path=/", "Max-Age=180", "Secure", "HttpOnly", "SameSite=Lax");
+    }
+
+    @Test
+    void rejectsTamperedCookie() {
+        String value = save(repository, authorizationRequest()).getValue();
+        char[] tampered = value.toCharArray();
+        int middle = tampered.length / 2;
+        tampered[middle] = tampered[middle] == 'A' ? 'B' : 'A';
+
+        assertThat(repository.loadAuthorizationRequest(requestWith(new String(tampered)))).isNull();
+        assertThat(repository.loadAuthorizationRequest(requestWith("not-base64!"))).isNull();
+        assertThat(repository.loadAuthorizationRequest(requestWith(""))).isNull();
+    }
+
+    @Test
+    void rejectsCookieEncryptedWithOtherSecret() {
+        CookieAuthorizationRequestRepository other =
+                new CookieAuthorizationRequestRepository("o".repeat(64), Duration.ofMinutes(3), true);
+
+        String value = save(other, authorizationRequest()).getValue();
+
+        assertThat(repository.loadAuthorizationRequest(requestWith(value))).isNull();
+    }
+
+    @Test
+    void rejectsExpiredCookie() {
+        CookieAuthorizationRequestRepository expired =
+                new CookieAuthorizationRequestRepository(SECRET, Duration.ofSeconds(-10), true);
+
+        String value = save(expired, authorizationRequest()).getValue();
+
+        assertThat(repository.loadAuthorizationRequest(requestWith(value))).isNull();
+    }
+
+    @Test
+    void refusesToDeserializeOtherClasses() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeLong(Instant.now().plusSeconds(60).getEpochSecond());
+            try (ObjectOutputStream objectOutput = new ObjectOutputStream(output)) {
+                objectOutput.writeObject(new Gadget());
+            }
+        }
+        byte[] encrypted = Encryptors.stronger(SECRET, CookieAuthorizationRequestRepository.KEY_SALT)
+                .encrypt(bytes.toByteArray());
+        String value = Base64.getUrlEncoder().withoutPadding().encodeToString(encrypted);
+
+        assertThat(repository.loadAuthorizationRequest(requestWith(value))).isNull();
+        assertThat(Gadget.deserialized).isFalse();
+    }
+
+    @Test
+    void removeReturnsRequestAndClearsCookie() {
+        String value = save(repository, authorizationRequest()).getValue();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        OAuth2AuthorizationRequest removed = repository.removeAuthorizationRequest(requestWith(value), response);
+
+        assertThat(removed).isNotNull();
+        assertThat(response.getCookie(CookieAuthorizationRequestRepository.COOKIE_NAME).getMaxAge()).isZero();
+    }
+
+    private static Cookie save(CookieAuthorizationRequestRepository repository, OAuth2AuthorizationRequest authorizationRequest) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        repository.saveAuthorizationRequest(authorizationRequest, new MockHttpServletRequest(), response);
+        return response.getCookie(CookieAuthorizationRequestRepository.COOKIE_NAME);
+    }
+
+    private static MockHttpServletRequest requestWith(String cookieValue) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(CookieAuthorizationRequestRepository.COOKIE_NAME, cookieValue));
+        return request;
+    }
+
+    private static OAuth2AuthorizationRequest authorizationRequest() {
+        return OAuth2AuthorizationRequest.authorizationCode()
+                .authorizationUri("https://accounts.example.com/o/oauth2/auth")
+                .clientId("client-id")
+                .redirectUri("http://localhost:8080/login/oauth2/code/google")
+                .scopes(Set.of("openid", "email"))
+                .state("state-123")
+                .attributes(attributes -> attributes.put(OAuth2ParameterNames.REGISTRATION_ID, "google"))
+                .build();
+    }
+
+    static final class Gadget implements Serializable {
+
+        static boolean deserialized;
+
+        private void readObject(java.io.ObjectInputStream input) throws IOException, ClassNotFoundException {
+            input.defaultReadObject();
+            deserialized = true;
+        }
+    }
+}
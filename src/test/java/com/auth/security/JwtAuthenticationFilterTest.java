@@ -0,0 +1,94 @@
+package com.auth.security;
+
+import com.auth.exceptions.ErrorResponseService;
+import com.auth.repository.UserRevocationRepository;
+import com.auth.service.UserRevocationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationFilterTest {
+
+    private final VerifiedTokenCache verifiedTokenCache = mock(VerifiedTokenCache.class);
+    private final UserRevocationService revocationService =
+            new UserRevocationService(mock(UserRevocationRepository.class), 900);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UUID userId = UUID.randomUUID();
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthenticationFilter(
+                verifiedTokenCache,
+                mock(UserDetailsService.class),
+                new ErrorResponseService(meterRegistry),
+                revocationService,
+                mock(RoleRegistry.class),
+                ObservationRegistry.NOOP,
+                true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void statelessPrincipalRejectsTokenIssuedBeforeTheDisable() throws Exception {
+        token("old", Instant.now().minusSeconds(60));
+        revocationService.revoke(userId);
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = send("old", chain);
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(meterRegistry.get("auth.rejections").tag("reason", "user_disabled").counter().count()).isEqualTo(1);
+        assertThat(chain.getRequest()).isNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void statelessPrincipalAcceptsTokenIssuedAfterTheReEnable() throws Exception {
+        revocationService.revoke(userId);
+        revocationService.restore(userId);
+        token("new", Instant.now());
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = send("new", chain);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal())
+                .isInstanceOfSatisfying(JwtUserPrincipal.class,
+                        principal -> assertThat(principal.getUsername()).isEqualTo("user@example.com"));
+    }
+
+    private void token(String token, Instant issuedAt) {
+        when(verifiedTokenCache.verify(token)).thenReturn(new VerifiedToken(
+                "access", UUID.randomUUID().toString(), userId, "user@example.com", List.of(),
+                issuedAt, issuedAt.plusSeconds(900)));
+    }
+
+    private MockHttpServletResponse send(String token, MockFilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
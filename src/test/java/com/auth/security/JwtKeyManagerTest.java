@@ -0,0 +1,154 @@
+package com.auth.security;
+
+import com.auth.entity.JwtSigningKey;
+import com.auth.repository.JwtSigningKeyRepository;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtKeyManagerTest {
+
+    private static final String SECRET = "a".repeat(32) + "b".repeat(32);
+    private static final String OTHER_SECRET = "c".repeat(64);
+    private static final long REFRESH_TTL_SECONDS = Duration.ofDays(1).toSeconds();
+
+    private final Map<String, JwtSigningKey> storedKeys = new ConcurrentHashMap<>();
+    private final JwtSigningKeyRepository repository = repository(storedKeys);
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ES256", "EdDSA"})
+    void instancesSharingKeyTablePublishSameJwks(String algorithm) {
+        JwtKeyManager.PublishedJwks first = manager(repository, SECRET, algorithm).getJwks();
+        JwtKeyManager.PublishedJwks second = manager(repository, SECRET, algorithm).getJwks();
+
+        assertThat(second.body()).isEqualTo(first.body());
+        assertThat(second.etag()).isEqualTo(first.etag());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ES256", "EdDSA"})
+    void keysAreRandomNotDerivedFromTheSecret(String algorithm) {
+        JwtKeyManager.PublishedJwks first = manager(repository, SECRET, algorithm).getJwks();
+        JwtKeyManager.PublishedJwks other = manager(repository(new ConcurrentHashMap<>()), SECRET, algorithm).getJwks();
+
+        assertThat(other.body()).isNotEqualTo(first.body());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ES256", "EdDSA"})
+    void tokenSignedOnOneInstanceVerifiesOnAnother(String algorithm) {
+        String token = manager(repository, SECRET, algorithm).sign(Jwts.builder().subject("user@example.com")).compact();
+
+        String subject = Jwts.parser()
+                .keyLocator(manager(repository, SECRET, algorithm))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload()
+                .getSubject();
+
+        assertThat(subject).isEqualTo("user@example.com");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ES256", "EdDSA"})
+    void instanceLosingTheInsertUsesTheStoredKey(String algorithm) {
+        JwtKeyManager winner = manager(repository, SECRET, algorithm);
+        // the loser reads before the winner's insert is visible, then fails on the unique kid
+        JwtSigningKeyRepository staleRepository = repository(storedKeys);
+        when(staleRepository.findAllByAlgorithmAndEpochBetween(anyString(), anyLong(), anyLong()))
+                .thenReturn(List.of())
+                .thenAnswer(invocation -> matching(storedKeys, invocation.getArgument(0),
+                        invocation.getArgument(1), invocation.getArgument(2)));
+
+        JwtKeyManager loser = manager(staleRepository, SECRET, algorithm);
+
+        assertThat(loser.getJwks().body()).isEqualTo(winner.getJwks().body());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ES256", "EdDSA"})
+    void storesPrivateKeysEncryptedWithTheSecret(String algorithm) {
+        manager(repository, SECRET, algorithm);
+
+        assertThat(storedKeys.values()).allSatisfy(key -> assertThat(key.getEncryptedPrivateKey()).isNotEmpty());
+        assertThatThrownBy(() -> manager(repository, OTHER_SECRET, algorithm))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("another secret");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ES256", "EdDSA"})
+    void publishesRetainedActiveAndNextKeys(String algorithm) {
+        JsonNode jwks = new ObjectMapper().readTree(manager(repository, SECRET, algorithm).getJwks().body());
+
+        // a fresh table holds the active and next keys; a one day refresh TTL with daily rotation
+        // would also retain one previous key
+        List<String> kids = new ArrayList<>();
+        for (JsonNode key : jwks.get("keys")) {
+            kids.add(key.get("kid").asString());
+            assertThat(key.get("alg").asString()).isEqualTo(algorithm);
+            assertThat(key.get("use").asString()).isEqualTo("sig");
+            assertThat(key.has("d")).isFalse();
+        }
+        assertThat(kids).hasSize(2).doesNotHaveDuplicates().allMatch(kid -> kid.startsWith(algorithm + "-"));
+        verify(repository).deleteAllByAlgorithmBefore(algorithm, epochOf(kids.get(0)) - 1);
+    }
+
+    @Test
+    void publishesNoKeysForHmac() {
+        JsonNode jwks = new ObjectMapper().readTree(manager(repository, SECRET, "HS512").getJwks().body());
+
+        assertThat(jwks.get("keys")).isEmpty();
+        verify(repository, never()).save(any());
+    }
+
+    private static long epochOf(String kid) {
+        return Long.parseLong(kid.substring(kid.lastIndexOf('-') + 1));
+    }
+
+    private static JwtKeyManager manager(JwtSigningKeyRepository repository, String secret, String algorithm) {
+        return new JwtKeyManager(repository, secret, algorithm, Duration.ofDays(1), REFRESH_TTL_SECONDS);
+    }
+
+    // a key table shared by the managers built on it, with the unique kid of the real one
+    private static JwtSigningKeyRepository repository(Map<String, JwtSigningKey> keys) {
+        JwtSigningKeyRepository repository = mock(JwtSigningKeyRepository.class);
+        when(repository.findAllByAlgorithmAndEpochBetween(anyString(), anyLong(), anyLong()))
+                .thenAnswer(invocation -> matching(keys, invocation.getArgument(0),
+                        invocation.getArgument(1), invocation.getArgument(2)));
+        when(repository.save(any(JwtSigningKey.class))).thenAnswer(invocation -> {
+            JwtSigningKey key = invocation.getArgument(0);
+            if (keys.putIfAbsent(key.getKid(), key) != null) {
+                throw new DataIntegrityViolationException("Duplicate entry " + key.getKid());
+            }
+            return key;
+        });
+        return repository;
+    }
+
+    private static List<JwtSigningKey> matching(Map<String, JwtSigningKey> keys, String algorithm, long from, long to) {
+        return keys.values().stream()
+                .filter(key -> key.getAlgorithm().equals(algorithm) && key.getEpoch() >= from && key.getEpoch() <= to)
+                .toList();
+    }
+}
@@ -0,0 +1,141 @@
+package com.auth.security;
+
+import com.auth.config.RateLimitProperties;
+import com.auth.exceptions.ErrorResponseService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private static final String LOGIN = "/auth/login";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void rejectsByIpOnceBurstIsUsed() throws Exception {
+        RateLimitFilter filter = filter(new RateLimitProperties.Limit(2, Duration.ofMinutes(1)), null);
+
+        assertThat(send(filter, "10.0.0.1", "{}").getStatus()).isEqualTo(200);
+        assertThat(send(filter, "10.0.0.1", "{}").getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = send(filter, "10.0.0.1", "{}");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("30");
+        assertThat(rejections("ip")).isEqualTo(1);
+        assertThat(rejections("email")).isZero();
+        assertThat(send(filter, "10.0.0.2", "{}").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void rejectsByNormalizedEmail() throws Exception {
+        RateLimitFilter filter = filter(null, new RateLimitProperties.Limit(1, Duration.ofMinutes(1)));
+
+        assertThat(send(filter, "10.0.0.1", "{\"email\":\"user@example.com\"}").getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = send(filter, "10.0.0.2", "{\"email\":\" User@Example.com \"}");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("60");
+        assertThat(rejections("email")).isEqualTo(1);
+        assertThat(rejections("ip")).isZero();
+        assertThat(send(filter, "10.0.0.1", "{\"email\":\"other@example.com\"}").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void replaysBodyToTheChain() throws Exception {
+        RateLimitFilter filter = filter(null, new RateLimitProperties.Limit(5, Duration.ofMinutes(1)));
+        String body = "{\"email\":\"user@example.com\",\"password\":\"secret\"}";
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("10.0.0.1", body), new MockHttpServletResponse(), chain);
+
+        byte[] replayed = chain.getRequest().getInputStream().readAllBytes();
+        assertThat(new String(replayed, StandardCharsets.UTF_8)).isEqualTo(body);
+    }
+
+    @Test
+    void passesMalformedBodyWithoutEmailLimit() throws Exception {
+        RateLimitFilter filter = filter(null, new RateLimitProperties.Limit(1, Duration.ofMinutes(1)));
+
+        assertThat(send(filter, "10.0.0.1", "not json").getStatus()).isEqualTo(200);
+        assertThat(send(filter, "10.0.0.1", "not json").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void rejectsOversizedBody() throws Exception {
+        RateLimitFilter filter = filter(null, new RateLimitProperties.Limit(5, Duration.ofMinutes(1)));
+
+        MockHttpServletResponse response = send(filter, "10.0.0.1", "x".repeat(16 * 1024 + 1));
+
+        assertThat(response.getStatus()).isEqualTo(413);
+    }
+
+    @Test
+    void ignoresOtherMethodsAndPaths() throws Exception {
+        RateLimitFilter filter = filter(new RateLimitProperties.Limit(1, Duration.ofMinutes(1)), null);
+
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest get = request("10.0.0.1", "{}");
+            get.setMethod("GET");
+            MockHttpServletResponse getResponse = new MockHttpServletResponse();
+            filter.doFilter(get, getResponse, new MockFilterChain());
+            assertThat(getResponse.getStatus()).isEqualTo(200);
+
+            MockHttpServletRequest otherPath = request("10.0.0.1", "{}");
+            otherPath.setRequestURI("/auth/refresh");
+            MockHttpServletResponse otherResponse = new MockHttpServletResponse();
+            filter.doFilter(otherPath, otherResponse, new MockFilterChain());
+            assertThat(otherResponse.getStatus()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    void matchesEncodedAndParameterizedPaths() throws Exception {
+        RateLimitFilter filter = filter(new RateLimitProperties.Limit(1, Duration.ofMinutes(1)), null);
+
+        assertThat(send(filter, "10.0.0.1", "{}").getStatus()).isEqualTo(200);
+        for (String uri : List.of("/auth/%6Cogin", "/auth/login;a=b", "/auth/%6c%6F%67%69%6e")) {
+            MockHttpServletRequest encoded = request("10.0.0.1", "{}");
+            encoded.setRequestURI(uri);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(encoded, response, new MockFilterChain());
+            assertThat(response.getStatus()).as(uri).isEqualTo(429);
+        }
+        assertThat(rejections("ip")).isEqualTo(3);
+    }
+
+    private RateLimitFilter filter(RateLimitProperties.Limit perIp, RateLimitProperties.Limit perEmail) {
+        RateLimitProperties properties = new RateLimitProperties(
+                true, 1000, Duration.ofMinutes(10), List.of(new RateLimitProperties.Endpoint(LOGIN, perIp, perEmail)));
+        return new RateLimitFilter(properties, new ErrorResponseService(meterRegistry), new ObjectMapper(), meterRegistry);
+    }
+
+    private static MockHttpServletResponse send(RateLimitFilter filter, String ip, String body) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(ip, body), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String ip, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", LOGIN);
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private double rejections(String key) {
+        return meterRegistry.get("auth.rate_limit.rejected").tag("key", key).counter().count();
+    }
+}
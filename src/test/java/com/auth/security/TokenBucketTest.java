@@ -0,0 +1,66 @@
+package com.auth.security;
+
+import com.auth.config.RateLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    // 5 per minute: one token every 12 seconds
+    private final RateLimitProperties.Limit limit = new RateLimitProperties.Limit(5, Duration.ofMinutes(1));
+
+    @Test
+    void allowsFullBurstThenRejects() {
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(limit, now);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(now)).isZero();
+        }
+        assertThat(bucket.tryAcquire(now)).isEqualTo(12 * SECOND);
+    }
+
+    @Test
+    void reportsTimeUntilNextToken() {
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(limit, now);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(now);
+        }
+
+        assertThat(bucket.tryAcquire(now + 5 * SECOND)).isEqualTo(7 * SECOND);
+    }
+
+    @Test
+    void refillsOneTokenPerEmissionInterval() {
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(limit, now);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(now);
+        }
+
+        long later = now + 12 * SECOND;
+        assertThat(bucket.tryAcquire(later)).isZero();
+        assertThat(bucket.tryAcquire(later)).isPositive();
+    }
+
+    @Test
+    void refillsToCapacityAfterIdlePeriod() {
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(limit, now);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(now);
+        }
+
+        long later = now + 10 * 60 * SECOND;
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(later)).isZero();
+        }
+        assertThat(bucket.tryAcquire(later)).isPositive();
+    }
+}
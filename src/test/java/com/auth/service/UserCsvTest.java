@@ -0,0 +1,93 @@
+package com.auth.service;
+
+import com.auth.dto.RoleDto;
+import com.auth.dto.UserDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserCsvTest {
+
+    @Test
+    void splitsPlainFields() {
+        assertThat(UserCsv.split("a,b,,c")).containsExactly("a", "b", "", "c");
+        assertThat(UserCsv.split("")).containsExactly("");
+        assertThat(UserCsv.split("a,")).containsExactly("a", "");
+    }
+
+    @Test
+    void keepsSeparatorsInsideQuotes() {
+        assertThat(UserCsv.split("\"Doe, Jane\",jane@example.com"))
+                .containsExactly("Doe, Jane", "jane@example.com");
+    }
+
+    @Test
+    void unescapesDoubledQuotes() {
+        assertThat(UserCsv.split("\"say \"\"hi\"\"\",x")).containsExactly("say \"hi\"", "x");
+        assertThat(UserCsv.split("\"\"\"\"")).containsExactly("\"");
+        assertThat(UserCsv.split("\"\",x")).containsExactly("", "x");
+    }
+
+    @Test
+    void rejectsUnterminatedQuote() {
+        assertThatThrownBy(() -> UserCsv.split("\"unterminated,x"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unterminated quoted field");
+    }
+
+    @Test
+    void matchesColumnsByHeaderName() {
+        Function<String, UserDto> parser = UserCsv.parser(" Roles ,EMAIL,name,enabled,password");
+
+        UserDto user = parser.apply("admin; user ,jane@example.com,Jane,false,secret");
+
+        assertThat(user.getEmail()).isEqualTo("jane@example.com");
+        assertThat(user.getName()).isEqualTo("Jane");
+        assertThat(user.getPassword()).isEqualTo("secret");
+        assertThat(user.getEnabled()).isFalse();
+        assertThat(user.getRoles()).extracting(RoleDto::getName).containsExactlyInAnyOrder("admin", "user");
+    }
+
+    @Test
+    void treatsMissingAndEmptyFieldsAsAbsent() {
+        Function<String, UserDto> parser = UserCsv.parser("email,name,enabled,roles");
+
+        UserDto user = parser.apply("jane@example.com,,");
+
+        assertThat(user.getName()).isNull();
+        assertThat(user.getEnabled()).isTrue();
+        assertThat(user.getRoles()).isEmpty();
+    }
+
+    @Test
+    void requiresEmailColumn() {
+        assertThatThrownBy(() -> UserCsv.parser("name,password"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("email");
+    }
+
+    @Test
+    void parsesWhatItFormats() {
+        UserDto exported = UserDto.builder()
+                .id(UUID.randomUUID())
+                .name("Doe, \"JD\" Jane")
+                .email("jane@example.com")
+                .image("https://example.com/a.png")
+                .enabled(false)
+                .roles(Set.of(new RoleDto(null, "user"), new RoleDto(null, "admin")))
+                .build();
+
+        UserDto imported = UserCsv.parser(UserCsv.header()).apply(UserCsv.format(exported));
+
+        assertThat(imported.getName()).isEqualTo(exported.getName());
+        assertThat(imported.getEmail()).isEqualTo(exported.getEmail());
+        assertThat(imported.getImage()).isEqualTo(exported.getImage());
+        assertThat(imported.getEnabled()).isFalse();
+        assertThat(imported.getRoles()).extracting(RoleDto::getName).containsExactlyInAnyOrder("admin", "user");
+    }
+}
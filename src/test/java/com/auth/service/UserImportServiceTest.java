@@ -0,0 +1,183 @@
+package com.auth.service;
+
+import com.auth.config.CacheConfig;
+import com.auth.dto.UserImportError;
+import com.auth.dto.UserImportResult;
+import com.auth.entity.Role;
+import com.auth.entity.User;
+import com.auth.repository.UserRepository;
+import com.auth.security.BoundedPasswordEncoder;
+import com.auth.security.RoleRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserImportServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RoleRegistry roleRegistry = mock(RoleRegistry.class);
+    private final List<User> saved = new ArrayList<>();
+    private BoundedPasswordEncoder passwordEncoder;
+    private UserImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of("taken@example.com"));
+        when(userRepository.saveAll(any())).thenAnswer(invocation -> {
+            invocation.<Iterable<User>>getArgument(0).forEach(saved::add);
+            return List.of();
+        });
+        when(roleRegistry.findByName("user")).thenReturn(Optional.of(Role.builder().name("user").build()));
+
+        passwordEncoder = new BoundedPasswordEncoder(new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return "hashed:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        }, 1, 1, new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+        importService = new UserImportService(
+                userRepository,
+                roleRegistry,
+                passwordEncoder,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                mock(PlatformTransactionManager.class),
+                mock(EntityManager.class),
+                new ConcurrentMapCacheManager(CacheConfig.USERS_BY_EMAIL),
+                new ObjectMapper(),
+                2,
+                1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+        passwordEncoder.shutdown();
+    }
+
+    @Test
+    void reportsRejectedNdjsonRecordsByLine() throws Exception {
+        UserImportResult result = importUsers(UserImportService.Format.NDJSON, """
+                {"email":"a@example.com","password":"secret","roles":[{"name":"user"}]}
+                {"email":
+                
+                {"email":"not-an-email"}
+                {"email":"taken@example.com"}
+                {"email":"b@example.com","roles":[{"name":"missing"}]}
+                {"email":"c@example.com","password":"{bcrypt}$2a$10$abcdefghijklmnopqrstuv"}
+                """);
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(4);
+        assertThat(result.isTruncated()).isFalse();
+        assertThat(result.getErrors()).extracting(UserImportError::getLine).containsExactly(2L, 4L, 5L, 6L);
+        assertThat(result.getErrors().get(0).getMessage()).startsWith("Unreadable record");
+        assertThat(result.getErrors().get(1).getMessage()).isEqualTo("Invalid email format");
+        assertThat(result.getErrors().get(2).getMessage()).isEqualTo("Email is already registered");
+        assertThat(result.getErrors().get(3).getMessage()).isEqualTo("Unknown role missing");
+
+        assertThat(saved).extracting(User::getEmail).containsExactly("a@example.com", "c@example.com");
+        assertThat(saved.get(0).getPassword()).isEqualTo("hashed:secret");
+        assertThat(saved.get(0).getRoles()).extracting(Role::getName).containsExactly("user");
+        assertThat(saved.get(1).getPassword()).isEqualTo("{bcrypt}$2a$10$abcdefghijklmnopqrstuv");
+    }
+
+    @Test
+    void reportsRejectedCsvRecordsByLine() throws Exception {
+        UserImportResult result = importUsers(UserImportService.Format.CSV, """
+                email,name,roles
+                a@example.com,"Doe, Jane",user
+                "b@example.com,unterminated
+                a@example.com,Duplicate,
+                """);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(UserImportError::getLine).containsExactly(3L, 4L);
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("Unreadable record: Unterminated quoted field");
+        assertThat(result.getErrors().get(1).getMessage()).isEqualTo("Email appears more than once in the import");
+        assertThat(saved).singleElement().extracting(User::getName).isEqualTo("Doe, Jane");
+    }
+
+    @Test
+    void comparesEmailsCaseInsensitively() throws Exception {
+        UserImportResult result = importUsers(UserImportService.Format.CSV, """
+                email
+                new@example.com
+                NEW@example.com
+                Taken@Example.com
+                """);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(UserImportError::getMessage)
+                .containsExactly("Email appears more than once in the import", "Email is already registered");
+        assertThat(saved).singleElement().extracting(User::getEmail).isEqualTo("new@example.com");
+    }
+
+    @Test
+    void retriesRejectedBatchRecordByRecord() throws Exception {
+        doAnswer(invocation -> {
+            List<User> users = new ArrayList<>();
+            invocation.<Iterable<User>>getArgument(0).forEach(users::add);
+            if (users.stream().anyMatch(user -> user.getEmail().equals("bad@example.com"))) {
+                throw new DataIntegrityViolationException("Duplicate entry", new SQLException("Duplicate entry 'bad'"));
+            }
+            saved.addAll(users);
+            return users;
+        }).when(userRepository).saveAll(any());
+
+        UserImportResult result = importUsers(UserImportService.Format.CSV, """
+                email
+                good@example.com
+                bad@example.com
+                """);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getLine()).isEqualTo(3L);
+            assertThat(error.getEmail()).isEqualTo("bad@example.com");
+            assertThat(error.getMessage()).isEqualTo("Rejected by the database: Duplicate entry 'bad'");
+        });
+        assertThat(saved).extracting(User::getEmail).containsExactly("good@example.com");
+    }
+
+    @Test
+    void loadsRolesBeforeImporting() throws Exception {
+        importUsers(UserImportService.Format.CSV, "email\n");
+
+        verify(roleRegistry).refresh();
+    }
+
+    private UserImportResult importUsers(UserImportService.Format format, String input) throws Exception {
+        return importService.importUsers(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), format);
+    }
+}
@@ -0,0 +1,95 @@
+package com.auth.service;
+
+import com.auth.entity.UserRevocation;
+import com.auth.repository.UserRevocationRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserRevocationServiceTest {
+
+    private static final long ACCESS_TTL_SECONDS = 900;
+
+    private final UserRevocationRepository repository = mock(UserRevocationRepository.class);
+    private final UserRevocationService revocationService = new UserRevocationService(repository, ACCESS_TTL_SECONDS);
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void rejectsTokensIssuedBeforeTheDisable() {
+        Instant issuedBefore = Instant.now().minusSeconds(1);
+
+        revocationService.revoke(userId);
+
+        assertThat(revocationService.isRevoked(userId, issuedBefore)).isTrue();
+        assertThat(revocationService.isRevoked(userId, Instant.now().plusSeconds(1))).isFalse();
+        assertThat(revocationService.isRevoked(UUID.randomUUID(), issuedBefore)).isFalse();
+        verify(repository).save(any(UserRevocation.class));
+    }
+
+    @Test
+    void acceptsTokensAgainAfterTheReEnable() {
+        revocationService.revoke(userId);
+
+        revocationService.restore(userId);
+
+        assertThat(revocationService.isRevoked(userId, Instant.now())).isFalse();
+        verify(repository).deleteById(userId);
+    }
+
+    @Test
+    void sharesRevocationsOfOtherNodesAfterOnePoll() {
+        Instant revokedAt = Instant.now().minusSeconds(2);
+        Instant issuedBefore = revokedAt.minusSeconds(60);
+        when(repository.findAllByRevokedAtAfter(any())).thenReturn(List.of(new UserRevocation(userId, revokedAt)));
+
+        assertThat(revocationService.isRevoked(userId, issuedBefore)).isFalse();
+        revocationService.poll();
+
+        assertThat(revocationService.isRevoked(userId, issuedBefore)).isTrue();
+        assertThat(revocationService.isRevoked(userId, revokedAt.plusSeconds(1))).isFalse();
+    }
+
+    @Test
+    void dropsRevocationsRestoredOnOtherNodes() {
+        Instant revokedAt = Instant.now().minus(Duration.ofMinutes(2));
+        when(repository.findAllByRevokedAtAfter(any())).thenReturn(List.of(new UserRevocation(userId, revokedAt)));
+        revocationService.poll();
+
+        when(repository.findAllByRevokedAtAfter(any())).thenReturn(List.of());
+        revocationService.poll();
+
+        assertThat(revocationService.isRevoked(userId, revokedAt.minusSeconds(60))).isFalse();
+    }
+
+    @Test
+    void keepsLocalRevocationWhoseTransactionHasNotCommitted() {
+        when(repository.findAllByRevokedAtAfter(any())).thenReturn(List.of());
+        revocationService.revoke(userId);
+
+        revocationService.poll();
+
+        assertThat(revocationService.isRevoked(userId, Instant.now().minusSeconds(1))).isTrue();
+    }
+
+    @Test
+    void pollsOnlyRevocationsYoungerThanTheAccessTokens() {
+        when(repository.findAllByRevokedAtAfter(any())).thenReturn(List.of());
+        Instant before = Instant.now();
+
+        revocationService.poll();
+
+        verify(repository).findAllByRevokedAtAfter(argThat(cutoff ->
+                !cutoff.isBefore(before.minusSeconds(ACCESS_TTL_SECONDS))
+                        && !cutoff.isAfter(Instant.now().minusSeconds(ACCESS_TTL_SECONDS))));
+    }
+}
@@ -0,0 +1,162 @@
+package com.auth.service;
+
+import com.auth.dto.UserDto;
+import com.auth.entity.Provider;
+import com.auth.entity.User;
+import com.auth.entity.UserIdentity;
+import com.auth.mapper.UserMapper;
+import com.auth.repository.UserIdentityRepository;
+import com.auth.repository.UserRepository;
+import com.auth.security.OAuth2UserInfo;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserServiceTest {
+
+    private static final String EMAIL = "user@example.com";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserIdentityRepository userIdentityRepository = mock(UserIdentityRepository.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final UserRevocationService userRevocationService = mock(UserRevocationService.class);
+    private final User localUser = new User("User", EMAIL, null, true, Provider.LOCAL, null);
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        localUser.setId(UUID.randomUUID());
+        when(userRepository.findByProviderAndProviderId(any(), any())).thenReturn(Optional.empty());
+        when(userIdentityRepository.findUserByProviderAndProviderId(any(), any())).thenReturn(Optional.empty());
+        when(entityManager.getReference(User.class, localUser.getId())).thenReturn(localUser);
+        userService = new UserService(
+                userRepository,
+                userIdentityRepository,
+                mock(UserMapper.class),
+                userRevocationService,
+                entityManager);
+    }
+
+    @Test
+    void linksVerifiedEmailWithoutChangingTheAccountProvider() {
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(localUser));
+
+        User user = userService.findOrCreateOAuth2User(googleLogin(true));
+
+        assertThat(user).isSameAs(localUser);
+        assertThat(user.getProvider()).isEqualTo(Provider.LOCAL);
+        assertThat(user.getProviderId()).isNull();
+        ArgumentCaptor<UserIdentity> identity = ArgumentCaptor.forClass(UserIdentity.class);
+        verify(userIdentityRepository).save(identity.capture());
+        assertThat(identity.getValue().getUser()).isSameAs(localUser);
+        assertThat(identity.getValue().getProvider()).isEqualTo(Provider.GOOGLE);
+        assertThat(identity.getValue().getProviderId()).isEqualTo("google-sub");
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void rejectsUnverifiedEmailOfExistingAccount() {
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(localUser));
+
+        assertThatThrownBy(() -> userService.findOrCreateOAuth2User(googleLogin(false)))
+                .isInstanceOfSatisfying(OAuth2AuthenticationException.class,
+                        e -> assertThat(e.getError().getErrorCode()).isEqualTo("unverified_email"));
+        verify(userIdentityRepository, never()).save(any());
+    }
+
+    @Test
+    void resolvesLinkedIdentityBeforeTheEmail() {
+        when(userIdentityRepository.findUserByProviderAndProviderId(Provider.GOOGLE, "google-sub"))
+                .thenReturn(Optional.of(localUser));
+
+        assertThat(userService.findOrCreateOAuth2User(googleLogin(false))).isSameAs(localUser);
+        verify(userRepository, never()).findByEmail(any());
+    }
+
+    @Test
+    void createsAccountForUnknownEmail() {
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.empty());
+        when(userRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        User user = userService.findOrCreateOAuth2User(googleLogin(false));
+
+        assertThat(user.getEmail()).isEqualTo(EMAIL);
+        assertThat(user.getProvider()).isEqualTo(Provider.GOOGLE);
+        assertThat(user.getProviderId()).isEqualTo("google-sub");
+        verify(userIdentityRepository, never()).save(any());
+    }
+
+    @Test
+    void returnsConcurrentlyCreatedAccountWhenInsertCollides() {
+        User concurrent = new User("User", EMAIL, null, true, Provider.GOOGLE, "google-sub");
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.empty());
+        when(userRepository.save(any())).thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+        when(userRepository.findByProviderAndProviderId(Provider.GOOGLE, "google-sub"))
+                .thenReturn(Optional.empty(), Optional.of(concurrent));
+
+        assertThat(userService.findOrCreateOAuth2User(googleLogin(true))).isSameAs(concurrent);
+    }
+
+    @Test
+    void rethrowsInsertFailureWhenNoAccountWasCreatedConcurrently() {
+        DataIntegrityViolationException failure = new DataIntegrityViolationException("Duplicate entry");
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.empty());
+        when(userRepository.save(any())).thenThrow(failure);
+
+        assertThatThrownBy(() -> userService.findOrCreateOAuth2User(googleLogin(true))).isSameAs(failure);
+    }
+
+    @Test
+    void rejectsLoginWithoutEmailUnlessAlreadyLinked() {
+        OAuth2UserInfo facebookLogin = new OAuth2UserInfo(Provider.FACEBOOK, "fb-id", null, false, "User", null);
+
+        assertThatThrownBy(() -> userService.findOrCreateOAuth2User(facebookLogin))
+                .isInstanceOfSatisfying(OAuth2AuthenticationException.class,
+                        e -> assertThat(e.getError().getErrorCode()).isEqualTo("missing_email"));
+        verify(userRepository, never()).save(any());
+
+        when(userRepository.findByProviderAndProviderId(Provider.FACEBOOK, "fb-id")).thenReturn(Optional.of(localUser));
+        assertThat(userService.findOrCreateOAuth2User(facebookLogin)).isSameAs(localUser);
+    }
+
+    @Test
+    void revokesTokensOnDisableAndRestoresThemOnReEnable() {
+        when(userRepository.findById(localUser.getId())).thenReturn(Optional.of(localUser));
+        when(userRepository.save(localUser)).thenReturn(localUser);
+
+        userService.updateUser(UserDto.builder().enabled(false).build(), localUser.getId());
+        verify(userRevocationService).revoke(localUser.getId());
+        verify(userRevocationService, never()).restore(any());
+
+        userService.updateUser(UserDto.builder().enabled(true).build(), localUser.getId());
+        verify(userRevocationService).restore(localUser.getId());
+    }
+
+    @Test
+    void revokesTokensOfDeletedUser() {
+        when(userRepository.findById(localUser.getId())).thenReturn(Optional.of(localUser));
+
+        userService.deleteUser(localUser.getId());
+
+        verify(userRepository).delete(localUser);
+        verify(userRevocationService).revoke(localUser.getId());
+    }
+
+    private static OAuth2UserInfo googleLogin(boolean emailVerified) {
+        return new OAuth2UserInfo(Provider.GOOGLE, "google-sub", EMAIL, emailVerified, "User", null);
+    }
+}